@@ -17,18 +17,43 @@
 package org.xnio.netty.buffer;
 
 import io.netty.util.internal.PlatformDependent;
+import org.xnio.ByteBufferPool;
 import org.xnio.Pooled;
 
 import java.nio.ByteBuffer;
 
 /**
+ * {@link Pooled} which holds a {@link ByteBuffer}. If the buffer was obtained from a {@link ByteBufferPool} it
+ * is given back to it (or to the {@link XnioIoThreadCache} it was allocated from) on {@link #free()}, otherwise the
+ * native memory of a direct buffer is released directly.
+ *
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
 final class PooledByteBuf implements Pooled<ByteBuffer> {
-    private final ByteBuffer buffer;
+    private final XnioByteBufAllocatorMetric metric;
+    private final boolean fromPool;
+    private final XnioIoThreadCache cache;
+    private final boolean direct;
+    private final int capacity;
+    private ByteBuffer buffer;
+
+    PooledByteBuf(XnioByteBufAllocatorMetric metric, ByteBuffer buffer, boolean fromPool) {
+        this(metric, buffer, fromPool, null);
+    }
+
+    PooledByteBuf(XnioByteBufAllocatorMetric metric, ByteBuffer buffer, XnioIoThreadCache cache) {
+        this(metric, buffer, true, cache);
+    }
 
-    PooledByteBuf(ByteBuffer buffer) {
+    private PooledByteBuf(XnioByteBufAllocatorMetric metric, ByteBuffer buffer, boolean fromPool,
+                          XnioIoThreadCache cache) {
+        this.metric = metric;
         this.buffer = buffer;
+        this.fromPool = fromPool;
+        this.cache = cache;
+        this.direct = buffer.isDirect();
+        this.capacity = buffer.capacity();
+        metric.increment(direct, capacity, fromPool);
     }
 
     @Override
@@ -38,11 +63,28 @@ final class PooledByteBuf implements Pooled<ByteBuffer> {
 
     @Override
     public void free() {
-        PlatformDependent.freeDirectBuffer(buffer);
+        ByteBuffer buffer = this.buffer;
+        if (buffer == null) {
+            // already freed
+            return;
+        }
+        this.buffer = null;
+        if (cache != null) {
+            cache.free(buffer);
+        } else if (fromPool) {
+            ByteBufferPool.free(buffer);
+        } else if (direct) {
+            PlatformDependent.freeDirectBuffer(buffer);
+        }
+        metric.decrement(direct, capacity, fromPool);
     }
 
     @Override
     public ByteBuffer getResource() throws IllegalStateException {
+        ByteBuffer buffer = this.buffer;
+        if (buffer == null) {
+            throw new IllegalStateException("Buffer was freed already");
+        }
         return buffer;
     }
 
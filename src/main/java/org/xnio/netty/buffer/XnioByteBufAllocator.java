@@ -18,41 +18,273 @@ package org.xnio.netty.buffer;
 
 import io.netty.buffer.AbstractByteBufAllocator;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
 import org.xnio.ByteBufferPool;
 import org.xnio.ByteBufferSlicePool;
+import org.xnio.XnioIoThread;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * {@link io.netty.buffer.ByteBufAllocator} which wraps an existing {@link ByteBufferSlicePool} and use it to allocate direct
  * {@link ByteBuf}. If the requested {@link ByteBuf} is to big it will be allocated directly and not pooled at all.
+ * Heap {@link ByteBuf}s are backed by the arrays of the heap {@link ByteBufferPool} of the same size.
+ * Once a pooled {@link ByteBuf} is released its memory is given back to the {@link ByteBufferPool}.
+ * <p>
+ * When created without a {@link ByteBufferPool} the allocator uses the best fitting of
+ * {@link ByteBufferPool#SMALL_DIRECT}, {@link ByteBufferPool#MEDIUM_DIRECT} and {@link ByteBufferPool#LARGE_DIRECT}
+ * (respectively their heap counterparts) for each allocation and composes bigger direct {@link ByteBuf}s out of
+ * multiple pooled buffers, so no unpooled native memory is allocated.
+ * <p>
+ * Buffers which are allocated by a {@link XnioIoThread} are served from a small cache which is owned by that thread,
+ * so the {@link ByteBufferPool} itself is only hit when the cache is empty or full. The cache is given back to the
+ * {@link ByteBufferPool} once the thread did not allocate for {@code org.xnio.netty.allocator.cacheTrimIntervalMillis}.
  *
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
-public final class XnioByteBufAllocator extends AbstractByteBufAllocator {
-    final ByteBufferPool pool;
+public final class XnioByteBufAllocator extends AbstractByteBufAllocator implements ByteBufAllocatorMetricProvider {
+    private static final ByteBufferPool[] DIRECT_POOLS = {
+            ByteBufferPool.SMALL_DIRECT, ByteBufferPool.MEDIUM_DIRECT, ByteBufferPool.LARGE_DIRECT };
+    private static final ByteBufferPool[] HEAP_POOLS = {
+            ByteBufferPool.SMALL_HEAP, ByteBufferPool.MEDIUM_HEAP, ByteBufferPool.LARGE_HEAP };
+
+    // maximum number of buffers per pool which are cached by each XnioIoThread, 0 disables the cache
+    private static final int CACHE_SIZE = Math.max(0,
+            SystemPropertyUtil.getInt("org.xnio.netty.allocator.cacheSize", 256));
+    // maximum number of bytes per pool which are cached by each XnioIoThread
+    private static final int MAX_CACHED_BYTES = Math.max(0,
+            SystemPropertyUtil.getInt("org.xnio.netty.allocator.maxCachedBytes", 2 * ByteBufferPool.LARGE_SIZE));
+    // maximum factor by which the growth of a buffer may exceed the default growth to end up in a pool
+    private static final int MAX_GROWTH_FACTOR = 2;
+    private static final long CACHE_TRIM_INTERVAL_MILLIS = Math.max(1,
+            SystemPropertyUtil.getLong("org.xnio.netty.allocator.cacheTrimIntervalMillis", 1000));
+
+    // ordered by size, smallest first
+    private final ByteBufferPool[] directPools;
+    private final ByteBufferPool[] heapPools;
+    private final boolean composeOversized;
+    final XnioByteBufAllocatorMetric metric = new XnioByteBufAllocatorMetric();
+    private final boolean disableLeakDetector;
+    private final ThreadLocal<XnioIoThreadCache> threadCache = new ThreadLocal<XnioIoThreadCache>() {
+        @Override
+        protected XnioIoThreadCache initialValue() {
+            XnioIoThread thread = XnioIoThread.currentThread();
+            if (thread == null) {
+                return null;
+            }
+            return newThreadCache(thread);
+        }
+    };
 
     public XnioByteBufAllocator(ByteBufferPool pool) {
+        this(pool, false);
+    }
+
+    /**
+     * Create a new instance which uses the given {@link ByteBufferPool}.
+     *
+     * @param disableLeakDetector {@code true} if the leak-detection should be disabled completely for this
+     *                            allocator. Be aware that pooled buffers which are not released explicitly are never
+     *                            given back to the {@link ByteBufferPool}.
+     */
+    public XnioByteBufAllocator(ByteBufferPool pool, boolean disableLeakDetector) {
         if (pool == null) {
             throw new NullPointerException("pool");
         }
-        this.pool = pool;
+        this.directPools = new ByteBufferPool[] { pool };
+        this.heapPools = heapPools(pool.getSize());
+        this.composeOversized = false;
+        this.disableLeakDetector = disableLeakDetector;
+    }
+
+    /**
+     * Create a new instance which picks the best fitting direct {@link ByteBufferPool} for each allocation.
+     */
+    public XnioByteBufAllocator() {
+        this(false);
+    }
+
+    /**
+     * Create a new instance which picks the best fitting direct {@link ByteBufferPool} for each allocation.
+     *
+     * @param disableLeakDetector {@code true} if the leak-detection should be disabled completely for this
+     *                            allocator. Be aware that pooled buffers which are not released explicitly are never
+     *                            given back to the {@link ByteBufferPool}.
+     */
+    public XnioByteBufAllocator(boolean disableLeakDetector) {
+        this.directPools = DIRECT_POOLS;
+        this.heapPools = HEAP_POOLS;
+        this.composeOversized = true;
+        this.disableLeakDetector = disableLeakDetector;
+    }
+
+    private static ByteBufferPool[] heapPools(int size) {
+        for (ByteBufferPool pool: HEAP_POOLS) {
+            if (pool.getSize() == size) {
+                return new ByteBufferPool[] { pool };
+            }
+        }
+        return new ByteBufferPool[0];
+    }
+
+    /**
+     * Returns the smallest direct {@link ByteBufferPool} which can serve the given capacity or {@code null} if the
+     * capacity is bigger than all of them.
+     */
+    ByteBufferPool directPool(int capacity) {
+        return pool(directPools, capacity);
+    }
+
+    /**
+     * Returns the smallest heap {@link ByteBufferPool} which can serve the given capacity or {@code null} if the
+     * capacity is bigger than all of them.
+     */
+    ByteBufferPool heapPool(int capacity) {
+        return pool(heapPools, capacity);
+    }
+
+    /**
+     * Returns the direct {@link ByteBufferPool} a buffer which grows to the given capacity is reallocated from or
+     * {@code null} if the best fitting pool is more than twice as big, so the buffer gets exactly the given capacity.
+     */
+    ByteBufferPool directGrowthPool(int capacity) {
+        return growthPool(directPool(capacity), capacity);
+    }
+
+    /**
+     * Returns the heap {@link ByteBufferPool} a buffer which grows to the given capacity is reallocated from or
+     * {@code null} if the best fitting pool is more than twice as big, so the buffer gets exactly the given capacity.
+     */
+    ByteBufferPool heapGrowthPool(int capacity) {
+        return growthPool(heapPool(capacity), capacity);
+    }
+
+    private static ByteBufferPool growthPool(ByteBufferPool pool, int capacity) {
+        return pool == null || pool.getSize() > MAX_GROWTH_FACTOR * (long) capacity ? null : pool;
+    }
+
+    private static ByteBufferPool pool(ByteBufferPool[] pools, int capacity) {
+        for (ByteBufferPool pool: pools) {
+            if (capacity <= pool.getSize()) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the {@link XnioIoThreadCache} of the current thread which should be used to allocate a buffer of the
+     * given {@link ByteBufferPool} or {@code null} if the buffer should be allocated from the pool directly.
+     */
+    XnioIoThreadCache threadCache(ByteBufferPool pool) {
+        XnioIoThreadCache cache = threadCache.get();
+        if (cache == null || !cache.isCached(pool)) {
+            return null;
+        }
+        return cache;
+    }
+
+    private XnioIoThreadCache newThreadCache(XnioIoThread thread) {
+        List<ByteBufferPool> cachedPools = new ArrayList<ByteBufferPool>(directPools.length + heapPools.length);
+        List<Integer> cacheSizes = new ArrayList<Integer>(directPools.length + heapPools.length);
+        for (ByteBufferPool[] pools: new ByteBufferPool[][] { directPools, heapPools }) {
+            for (ByteBufferPool pool: pools) {
+                int cacheSize = Math.min(CACHE_SIZE, MAX_CACHED_BYTES / pool.getSize());
+                if (cacheSize > 0) {
+                    cachedPools.add(pool);
+                    cacheSizes.add(cacheSize);
+                }
+            }
+        }
+        if (cachedPools.isEmpty()) {
+            return null;
+        }
+        int[] sizes = new int[cacheSizes.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = cacheSizes.get(i);
+        }
+        return new XnioIoThreadCache(thread, metric, cachedPools.toArray(new ByteBufferPool[0]), sizes,
+                CACHE_TRIM_INTERVAL_MILLIS);
     }
 
     @Override
     protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity) {
-        return new XnioHeapByteBuf(this, initialCapacity, maxCapacity);
+        ByteBuf buf = new XnioHeapByteBuf(this, initialCapacity, maxCapacity);
+        return disableLeakDetector ? buf : toLeakAwareBuffer(buf);
     }
 
     @Override
     protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
+        if (composeOversized && initialCapacity > directPools[directPools.length - 1].getSize()) {
+            CompositeByteBuf buf = newCompositeDirectBuffer(initialCapacity, maxCapacity);
+            return disableLeakDetector ? buf : toLeakAwareBuffer(buf);
+        }
+        ByteBuf buf = newPooledDirectBuffer(initialCapacity, maxCapacity);
+        // pooled memory must be given back explicitly, so track leaks like the other pooled allocators do
+        return disableLeakDetector ? buf : toLeakAwareBuffer(buf);
+    }
+
+    private ByteBuf newPooledDirectBuffer(int initialCapacity, int maxCapacity) {
         if (PlatformDependent.hasUnsafe()) {
             return new XnioUnsafeDirectByteBuf(this, initialCapacity, maxCapacity);
         }
         return new XnioDirectByteBuf(this, initialCapacity, maxCapacity);
     }
 
+    private CompositeByteBuf newCompositeDirectBuffer(int initialCapacity, int maxCapacity) {
+        CompositeByteBuf buf = new XnioCompositeByteBuf(this, maxCapacity);
+        try {
+            addPooledComponents(buf, initialCapacity);
+        } catch (Throwable cause) {
+            buf.release();
+            PlatformDependent.throwException(cause);
+        }
+        return buf;
+    }
+
+    /**
+     * Add pooled direct buffers with the given length in total to the end of the given {@link CompositeByteBuf}.
+     */
+    void addPooledComponents(CompositeByteBuf buf, int length) {
+        final int componentSize = directPools[directPools.length - 1].getSize();
+        for (int remaining = length; remaining > 0; remaining -= componentSize) {
+            int componentLength = Math.min(remaining, componentSize);
+            // the last component is taken from the best fitting pool
+            buf.addComponent(false,
+                    newPooledDirectBuffer(componentLength, componentSize).setIndex(0, componentLength));
+        }
+    }
+
+    /**
+     * Grow straight to the size of the next pool if that is at most twice the capacity of the default growth, as every
+     * capacity in between would be served by the same pooled buffer. As the growth does not depend on the type of
+     * the buffer, this requires a direct and a heap pool of the same size, otherwise the default growth is used.
+     */
+    @Override
+    public int calculateNewCapacity(int minNewCapacity, int maxCapacity) {
+        int newCapacity = super.calculateNewCapacity(minNewCapacity, maxCapacity);
+        ByteBufferPool pool = directPool(minNewCapacity);
+        if (pool == null || pool.getSize() > MAX_GROWTH_FACTOR * (long) newCapacity) {
+            return newCapacity;
+        }
+        ByteBufferPool heapPool = heapPool(minNewCapacity);
+        if (heapPool == null || heapPool.getSize() != pool.getSize()) {
+            return newCapacity;
+        }
+        return Math.min(pool.getSize(), maxCapacity);
+    }
+
     @Override
     public boolean isDirectBufferPooled() {
         return true;
     }
+
+    @Override
+    public XnioByteBufAllocatorMetric metric() {
+        return metric;
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.buffer;
+
+import io.netty.buffer.ByteBufAllocatorMetric;
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * {@link ByteBufAllocatorMetric} of a {@link XnioByteBufAllocator}.
+ */
+public final class XnioByteBufAllocatorMetric implements ByteBufAllocatorMetric {
+    private final LongCounter directMemory = PlatformDependent.newLongCounter();
+    private final LongCounter heapMemory = PlatformDependent.newLongCounter();
+    private final LongCounter pooledDirectBuffers = PlatformDependent.newLongCounter();
+    private final LongCounter pooledHeapBuffers = PlatformDependent.newLongCounter();
+    private final LongCounter cachedDirectBuffers = PlatformDependent.newLongCounter();
+    private final LongCounter cachedHeapBuffers = PlatformDependent.newLongCounter();
+
+    XnioByteBufAllocatorMetric() {
+    }
+
+    @Override
+    public long usedHeapMemory() {
+        return heapMemory.value();
+    }
+
+    @Override
+    public long usedDirectMemory() {
+        return directMemory.value();
+    }
+
+    /**
+     * Returns the number of pooled direct buffers which are in use by {@link io.netty.buffer.ByteBuf}s of the
+     * allocator.
+     */
+    public long pooledDirectBuffers() {
+        return pooledDirectBuffers.value();
+    }
+
+    /**
+     * Returns the number of pooled heap buffers which are in use by {@link io.netty.buffer.ByteBuf}s of the
+     * allocator.
+     */
+    public long pooledHeapBuffers() {
+        return pooledHeapBuffers.value();
+    }
+
+    /**
+     * Returns the number of direct buffers which are held by the per {@link org.xnio.XnioIoThread} caches of the
+     * allocator and were not given back to the {@link org.xnio.ByteBufferPool} yet.
+     */
+    public long cachedDirectBuffers() {
+        return cachedDirectBuffers.value();
+    }
+
+    /**
+     * Returns the number of heap buffers which are held by the per {@link org.xnio.XnioIoThread} caches of the
+     * allocator and were not given back to the {@link org.xnio.ByteBufferPool} yet.
+     */
+    public long cachedHeapBuffers() {
+        return cachedHeapBuffers.value();
+    }
+
+    void increment(boolean direct, int capacity, boolean fromPool) {
+        if (direct) {
+            directMemory.add(capacity);
+            if (fromPool) {
+                pooledDirectBuffers.increment();
+            }
+        } else {
+            heapMemory.add(capacity);
+            if (fromPool) {
+                pooledHeapBuffers.increment();
+            }
+        }
+    }
+
+    void decrement(boolean direct, int capacity, boolean fromPool) {
+        if (direct) {
+            directMemory.add(-capacity);
+            if (fromPool) {
+                pooledDirectBuffers.decrement();
+            }
+        } else {
+            heapMemory.add(-capacity);
+            if (fromPool) {
+                pooledHeapBuffers.decrement();
+            }
+        }
+    }
+
+    void incrementCached(boolean direct) {
+        if (direct) {
+            cachedDirectBuffers.increment();
+        } else {
+            cachedHeapBuffers.increment();
+        }
+    }
+
+    void decrementCached(boolean direct) {
+        if (direct) {
+            cachedDirectBuffers.decrement();
+        } else {
+            cachedHeapBuffers.decrement();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "XnioByteBufAllocatorMetric(usedDirectMemory: " + usedDirectMemory()
+                + "; usedHeapMemory: " + usedHeapMemory()
+                + "; pooledDirectBuffers: " + pooledDirectBuffers()
+                + "; pooledHeapBuffers: " + pooledHeapBuffers()
+                + "; cachedDirectBuffers: " + cachedDirectBuffers()
+                + "; cachedHeapBuffers: " + cachedHeapBuffers() + ')';
+    }
+}
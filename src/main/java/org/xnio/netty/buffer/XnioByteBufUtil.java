@@ -16,7 +16,6 @@
  */
 package org.xnio.netty.buffer;
 
-import io.netty.util.internal.PlatformDependent;
 import org.xnio.Pooled;
 
 import java.nio.ByteBuffer;
@@ -31,20 +30,36 @@ final class XnioByteBufUtil {
         // Utility
     }
 
-    static Pooled<ByteBuffer> allocateDirect(ByteBufferPool pool, int initialCapacity) {
-        Pooled<ByteBuffer> pooled;
-        if (initialCapacity <= pool.getSize()) {
-            pooled = new PooledByteBuf(pool.allocate());
-        } else {
-            pooled = new PooledByteBuf(ByteBuffer.allocateDirect(initialCapacity));
+    /**
+     * Allocate a direct buffer with at least the given capacity. If {@code grow} is {@code true} the buffer replaces
+     * a smaller one, so it is only taken from a pool which is at most twice as big as needed.
+     */
+    static Pooled<ByteBuffer> allocateDirect(XnioByteBufAllocator alloc, int initialCapacity, boolean grow) {
+        ByteBufferPool pool = grow ? alloc.directGrowthPool(initialCapacity) : alloc.directPool(initialCapacity);
+        if (pool == null) {
+            return new PooledByteBuf(alloc.metric, ByteBuffer.allocateDirect(initialCapacity), false);
         }
-        return pooled;
+        return allocate(alloc, pool);
     }
 
-    static void freeDirect(ByteBuffer buffer, ByteBuffer newBuffer) {
-        if (buffer != newBuffer) {
-            PlatformDependent.freeDirectBuffer(buffer);
+    /**
+     * Allocate a heap buffer with at least the given capacity. If {@code grow} is {@code true} the buffer replaces
+     * a smaller one, so it is only taken from a pool which is at most twice as big as needed.
+     */
+    static Pooled<ByteBuffer> allocateHeap(XnioByteBufAllocator alloc, int initialCapacity, boolean grow) {
+        ByteBufferPool pool = grow ? alloc.heapGrowthPool(initialCapacity) : alloc.heapPool(initialCapacity);
+        if (pool == null) {
+            return new PooledByteBuf(alloc.metric, ByteBuffer.allocate(initialCapacity), false);
         }
+        return allocate(alloc, pool);
+    }
+
+    private static Pooled<ByteBuffer> allocate(XnioByteBufAllocator alloc, ByteBufferPool pool) {
+        XnioIoThreadCache cache = alloc.threadCache(pool);
+        if (cache != null) {
+            return new PooledByteBuf(alloc.metric, cache.allocate(pool), cache);
+        }
+        return new PooledByteBuf(alloc.metric, pool.allocate(), true);
     }
 
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.buffer;
+
+import io.netty.buffer.CompositeByteBuf;
+
+/**
+ * {@link CompositeByteBuf} which is composed of pooled direct buffers. Growing its capacity chains additional pooled
+ * buffers instead of copying the content, and the components are never consolidated into a single buffer.
+ */
+final class XnioCompositeByteBuf extends CompositeByteBuf {
+
+    XnioCompositeByteBuf(XnioByteBufAllocator alloc, int maxCapacity) {
+        super(alloc, true, Integer.MAX_VALUE);
+        // CompositeByteBuf always allows to grow up to Integer.MAX_VALUE
+        maxCapacity(maxCapacity);
+    }
+
+    @Override
+    public CompositeByteBuf capacity(int newCapacity) {
+        checkNewCapacity(newCapacity);
+        int oldCapacity = capacity();
+        if (newCapacity <= oldCapacity) {
+            return super.capacity(newCapacity);
+        }
+        ((XnioByteBufAllocator) alloc()).addPooledComponents(this, newCapacity - oldCapacity);
+        return this;
+    }
+}
@@ -28,6 +28,8 @@ import java.nio.ByteBuffer;
  */
 final class XnioDirectByteBuf extends UnpooledDirectByteBuf {
     private Pooled<ByteBuffer> pooled;
+    // true while the buffer is reallocated with a bigger capacity
+    private boolean growing;
 
     XnioDirectByteBuf(ByteBufAllocator alloc, int initialCapacity, int maxCapacity) {
         super(alloc, initialCapacity, maxCapacity);
@@ -40,7 +42,12 @@ final class XnioDirectByteBuf extends UnpooledDirectByteBuf {
             throw new IllegalArgumentException("newCapacity: " + newCapacity);
         }
         Pooled<ByteBuffer> oldPooled = this.pooled;
-        super.capacity(newCapacity);
+        growing = newCapacity > capacity();
+        try {
+            super.capacity(newCapacity);
+        } finally {
+            growing = false;
+        }
         if (oldPooled != pooled) {
             oldPooled.free();
         }
@@ -49,15 +56,15 @@ final class XnioDirectByteBuf extends UnpooledDirectByteBuf {
 
     @Override
     protected ByteBuffer allocateDirect(int initialCapacity) {
-        Pooled<ByteBuffer> pooled = XnioByteBufUtil.allocateDirect(
-                ((XnioByteBufAllocator) alloc()).pool, initialCapacity);
+        Pooled<ByteBuffer> pooled = XnioByteBufUtil.allocateDirect((XnioByteBufAllocator) alloc(), initialCapacity,
+                growing);
         this.pooled = pooled;
         return pooled.getResource();
     }
 
     @Override
     protected void freeDirect(ByteBuffer buffer) {
-        XnioByteBufUtil.freeDirect(buffer, pooled.getResource());
+        // NOOP: the memory is owned by the Pooled and released via Pooled.free()
     }
 
     @Override
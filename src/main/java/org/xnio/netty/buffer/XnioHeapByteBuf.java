@@ -16,15 +16,61 @@
  */
 package org.xnio.netty.buffer;
 
-import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.UnpooledHeapByteBuf;
+import org.xnio.Pooled;
+
+import java.nio.ByteBuffer;
 
 
 /**
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
 final class XnioHeapByteBuf extends UnpooledHeapByteBuf {
-    XnioHeapByteBuf(ByteBufAllocator alloc, int initialCapacity, int maxCapacity) {
+    private Pooled<ByteBuffer> pooled;
+    // true while the buffer is reallocated with a bigger capacity
+    private boolean growing;
+
+    XnioHeapByteBuf(XnioByteBufAllocator alloc, int initialCapacity, int maxCapacity) {
         super(alloc, initialCapacity, maxCapacity);
     }
+
+    @Override
+    public ByteBuf capacity(int newCapacity) {
+        ensureAccessible();
+        if (newCapacity < 0 || newCapacity > maxCapacity()) {
+            throw new IllegalArgumentException("newCapacity: " + newCapacity);
+        }
+        Pooled<ByteBuffer> oldPooled = this.pooled;
+        growing = newCapacity > capacity();
+        try {
+            super.capacity(newCapacity);
+        } finally {
+            growing = false;
+        }
+        if (oldPooled != pooled) {
+            oldPooled.free();
+        }
+        return this;
+    }
+
+    @Override
+    protected byte[] allocateArray(int initialCapacity) {
+        Pooled<ByteBuffer> pooled = XnioByteBufUtil.allocateHeap((XnioByteBufAllocator) alloc(), initialCapacity,
+                growing);
+        this.pooled = pooled;
+        // heap pool buffers are never sliced, so they are backed by the whole array
+        return pooled.getResource().array();
+    }
+
+    @Override
+    protected void freeArray(byte[] array) {
+        // NOOP: the array is owned by the Pooled and released via Pooled.free()
+    }
+
+    @Override
+    protected void deallocate() {
+        super.deallocate();
+        pooled.free();
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.buffer;
+
+import org.xnio.ByteBufferPool;
+import org.xnio.XnioIoThread;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cache of pooled {@link ByteBuffer}s which sits in front of the {@link ByteBufferPool}s and is owned by a single
+ * {@link XnioIoThread}. Buffers which are freed by other threads are handed back via a lock-free queue and picked up
+ * by the owning thread, which is asked to drain them as soon as the first one was queued. If no buffer was allocated
+ * out of the cache for a whole trim interval all cached buffers are given back to the {@link ByteBufferPool}s. Once
+ * the {@link org.xnio.XnioWorker} was shut down nothing is cached anymore and the cached and queued buffers are given
+ * back to the {@link ByteBufferPool}s, by the owning thread or, once it terminated, by the thread which frees a buffer.
+ */
+final class XnioIoThreadCache implements Runnable {
+    private final XnioIoThread thread;
+    private final XnioByteBufAllocatorMetric metric;
+    private final ByteBufferPool[] pools;
+    private final ArrayDeque<ByteBuffer>[] caches;
+    private final int[] cacheSizes;
+    private final long trimIntervalMillis;
+    // drained by other threads too once the owning thread does not pick up the buffers anymore
+    private final Queue<ByteBuffer> returned = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drainScheduled.set(false);
+            if (!closeIfShutdown()) {
+                drainReturned();
+            }
+        }
+    };
+    // set once the buffers are not cached anymore
+    private volatile boolean closed;
+
+    private int allocations;
+    private boolean trimScheduled;
+
+    @SuppressWarnings("unchecked")
+    XnioIoThreadCache(XnioIoThread thread, XnioByteBufAllocatorMetric metric, ByteBufferPool[] pools,
+                      int[] cacheSizes, long trimIntervalMillis) {
+        this.thread = thread;
+        this.metric = metric;
+        this.pools = pools;
+        this.cacheSizes = cacheSizes;
+        this.trimIntervalMillis = trimIntervalMillis;
+        caches = new ArrayDeque[pools.length];
+        for (int i = 0; i < caches.length; i++) {
+            caches[i] = new ArrayDeque<ByteBuffer>(cacheSizes[i]);
+        }
+    }
+
+    /**
+     * Returns {@code true} if buffers of the given {@link ByteBufferPool} are cached.
+     */
+    boolean isCached(ByteBufferPool pool) {
+        return index(pool.getSize(), pool.isDirect()) != -1;
+    }
+
+    /**
+     * Allocate a buffer of the given {@link ByteBufferPool}. Must be called from the owning {@link XnioIoThread}.
+     */
+    ByteBuffer allocate(ByteBufferPool pool) {
+        assert Thread.currentThread() == thread;
+        drainReturned();
+        allocations++;
+        ByteBuffer buffer = caches[index(pool.getSize(), pool.isDirect())].pollLast();
+        if (buffer == null) {
+            return pool.allocate();
+        }
+        metric.decrementCached(buffer.isDirect());
+        return buffer;
+    }
+
+    /**
+     * Free a buffer which was allocated via {@link #allocate(ByteBufferPool)}. May be called from any thread.
+     */
+    void free(ByteBuffer buffer) {
+        if (Thread.currentThread() == thread) {
+            cache(buffer);
+            return;
+        }
+        // queued before the state of the owning thread is checked, so the buffer is either picked up by the owning
+        // thread or freed below
+        returned.offer(buffer);
+        if (closed) {
+            freeReturned();
+        } else if (!thread.isAlive()) {
+            closed = true;
+            freeReturned();
+            // the owning thread terminated, so it does not touch the caches anymore
+            synchronized (this) {
+                trim();
+            }
+        } else {
+            scheduleDrain();
+        }
+    }
+
+    @Override
+    public void run() {
+        trimScheduled = false;
+        if (closeIfShutdown()) {
+            return;
+        }
+        drainReturned();
+        if (allocations == 0) {
+            // the cache was idle for a whole interval, give everything back to the pools
+            trim();
+        } else {
+            allocations = 0;
+            scheduleTrim();
+        }
+    }
+
+    private void cache(ByteBuffer buffer) {
+        int index = index(buffer.capacity(), buffer.isDirect());
+        ArrayDeque<ByteBuffer> cache = caches[index];
+        if (cache.size() >= cacheSizes[index] || closeIfShutdown()) {
+            ByteBufferPool.free(buffer);
+            return;
+        }
+        buffer.clear();
+        cache.addLast(buffer);
+        metric.incrementCached(buffer.isDirect());
+        scheduleTrim();
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                thread.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                // the thread is shutting down and does not pick up the queued buffers anymore. Its cached buffers are
+                // given back once it notices the shutdown or by the first free after it terminated
+                drainScheduled.set(false);
+                freeReturned();
+            }
+        }
+    }
+
+    /**
+     * Gives back the cached and queued buffers if the {@link org.xnio.XnioWorker} was shut down and returns
+     * {@code true} if nothing is cached anymore. Must be called from the owning {@link XnioIoThread}.
+     */
+    private boolean closeIfShutdown() {
+        if (closed) {
+            return true;
+        }
+        if (!thread.getWorker().isShutdown()) {
+            return false;
+        }
+        closed = true;
+        freeReturned();
+        trim();
+        return true;
+    }
+
+    private void freeReturned() {
+        for (;;) {
+            ByteBuffer buffer = returned.poll();
+            if (buffer == null) {
+                return;
+            }
+            ByteBufferPool.free(buffer);
+        }
+    }
+
+    private void drainReturned() {
+        for (;;) {
+            ByteBuffer buffer = returned.poll();
+            if (buffer == null) {
+                return;
+            }
+            cache(buffer);
+        }
+    }
+
+    private void trim() {
+        for (ArrayDeque<ByteBuffer> cache: caches) {
+            for (;;) {
+                ByteBuffer buffer = cache.pollFirst();
+                if (buffer == null) {
+                    break;
+                }
+                metric.decrementCached(buffer.isDirect());
+                ByteBufferPool.free(buffer);
+            }
+        }
+    }
+
+    private void scheduleTrim() {
+        if (trimScheduled) {
+            return;
+        }
+        trimScheduled = true;
+        try {
+            thread.executeAfter(this, trimIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // the thread is shutting down, nothing will be allocated from the cache anymore
+            trimScheduled = false;
+            trim();
+        }
+    }
+
+    private int index(int size, boolean direct) {
+        for (int i = 0; i < pools.length; i++) {
+            ByteBufferPool pool = pools[i];
+            if (pool.getSize() == size && pool.isDirect() == direct) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
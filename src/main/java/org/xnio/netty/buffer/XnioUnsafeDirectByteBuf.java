@@ -28,6 +28,8 @@ import java.nio.ByteBuffer;
 final class XnioUnsafeDirectByteBuf extends UnpooledUnsafeDirectByteBuf {
 
     private Pooled<ByteBuffer> pooled;
+    // true while the buffer is reallocated with a bigger capacity
+    private boolean growing;
 
     XnioUnsafeDirectByteBuf(XnioByteBufAllocator alloc, int initialSize, int maxCapacity) {
         super(alloc, initialSize, maxCapacity);
@@ -40,7 +42,12 @@ final class XnioUnsafeDirectByteBuf extends UnpooledUnsafeDirectByteBuf {
             throw new IllegalArgumentException("newCapacity: " + newCapacity);
         }
         Pooled<ByteBuffer> oldPooled = this.pooled;
-        super.capacity(newCapacity);
+        growing = newCapacity > capacity();
+        try {
+            super.capacity(newCapacity);
+        } finally {
+            growing = false;
+        }
         if (oldPooled != pooled) {
             oldPooled.free();
         }
@@ -49,15 +56,15 @@ final class XnioUnsafeDirectByteBuf extends UnpooledUnsafeDirectByteBuf {
 
     @Override
     protected ByteBuffer allocateDirect(int initialCapacity) {
-        Pooled<ByteBuffer> pooled = XnioByteBufUtil.allocateDirect(
-                ((XnioByteBufAllocator) alloc()).pool, initialCapacity);
+        Pooled<ByteBuffer> pooled = XnioByteBufUtil.allocateDirect((XnioByteBufAllocator) alloc(), initialCapacity,
+                growing);
         this.pooled = pooled;
         return pooled.getResource();
     }
 
     @Override
     protected void freeDirect(ByteBuffer buffer) {
-        XnioByteBufUtil.freeDirect(buffer, pooled.getResource());
+        // NOOP: the memory is owned by the Pooled and released via Pooled.free()
     }
 
     @Override
@@ -18,16 +18,24 @@ package org.xnio.netty.transport;
 
 import io.netty.channel.AbstractServerChannel;
 import io.netty.channel.ChannelException;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandler;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoop;
 import io.netty.channel.socket.ServerSocketChannel;
 import org.xnio.ChannelListener;
+import org.xnio.IoUtils;
 import org.xnio.Option;
 import org.xnio.StreamConnection;
+import org.xnio.XnioIoThread;
 import org.xnio.channels.AcceptingChannel;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 /**
@@ -36,23 +44,40 @@ import java.net.SocketAddress;
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
 abstract class AbstractXnioServerSocketChannel extends AbstractServerChannel implements ServerSocketChannel {
+    // the number of accepted connections which can be handed over to the EventLoop by one XnioIoThread at a time
+    private static final int ACCEPT_RING_CAPACITY = 1024;
     private final XnioServerSocketChannelConfigImpl config = new XnioServerSocketChannelConfigImpl(this);
-    private static final ThreadLocal<StreamConnection[]> connections = new ThreadLocal<StreamConnection[]>();
-
-    private static StreamConnection[] connectionsArray(int size) {
-        StreamConnection[] array = connections.get();
-        if (array == null || array.length < size) {
-            array = new StreamConnection[size];
-            connections.set(array);
+    // per XnioIoThread of the accepting XnioWorker, indexed by the thread number
+    private volatile AcceptHandoff[] handoffs;
+    private volatile AcceptBudget[] budgets;
+    private volatile ChannelHandlerContext localAcceptor;
+    // the channel may be closed before it was bound, so the AcceptingChannel can not tell
+    private volatile boolean closed;
+    private final XnioAdmissionMetric admission = new XnioAdmissionMetric();
+    private final ChannelListener<StreamConnection> connectionClosed = new ChannelListener<StreamConnection>() {
+        @Override
+        public void handleEvent(StreamConnection connection) {
+            if (admission.connectionClosed() <= lowWater() && admission.isAcceptSuspended()) {
+                updateAdmission();
+            }
         }
-        return array;
-    }
+    };
 
     @Override
     protected boolean isCompatible(EventLoop loop) {
         return loop instanceof XnioEventLoop;
     }
 
+    @Override
+    protected void doRegister() throws Exception {
+        ((XnioEventLoop) eventLoop()).channelRegistered(this);
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        ((XnioEventLoop) eventLoop()).channelDeregistered(this);
+    }
+
     @Override
     public boolean isActive() {
         return isOpen();
@@ -101,6 +126,7 @@ abstract class AbstractXnioServerSocketChannel extends AbstractServerChannel imp
 
     @Override
     protected void doClose() throws Exception {
+        closed = true;
         AcceptingChannel channel = xnioChannel();
         if (channel == null) {
             return;
@@ -115,13 +141,52 @@ abstract class AbstractXnioServerSocketChannel extends AbstractServerChannel imp
         if (channel == null) {
             return;
         }
+        if (admission.isAcceptSuspended() && config.getConnectionRejectHandler() == null) {
+            // resumed once the number of connections dropped to the low water mark
+            return;
+        }
         channel.resumeAccepts();
     }
 
+    /**
+     * Returns the {@link XnioAdmissionMetric} of the connections accepted by this channel.
+     */
+    public XnioAdmissionMetric admissionMetric() {
+        return admission;
+    }
+
+    /**
+     * Called once {@link XnioChannelOption#CONNECTION_HIGH_WATER} or {@link XnioChannelOption#CONNECTION_LOW_WATER}
+     * were changed.
+     */
+    final void admissionChanged() {
+        updateAdmission();
+    }
+
     @Override
     public boolean isOpen() {
         AcceptingChannel channel = xnioChannel();
-        return channel == null || channel.isOpen();
+        return (channel == null || channel.isOpen()) && !closed;
+    }
+
+    /**
+     * Set the {@link ChannelHandlerContext} of the {@link io.netty.bootstrap.ServerBootstrap} acceptor which is
+     * invoked directly by the {@link XnioIoThread}s which accept the connections.
+     *
+     * @see XnioChannelOption#LOCAL_ACCEPT
+     */
+    final void localAcceptor(ChannelHandlerContext localAcceptor) {
+        this.localAcceptor = localAcceptor;
+    }
+
+    /**
+     * Returns {@code true} if the given acceptor is the only handler in the {@link ChannelPipeline}. Only then it is
+     * called directly by the accepting {@link XnioIoThread}s, so no other handler ever runs outside of the
+     * {@link EventLoop}.
+     */
+    private boolean isOnlyHandler(ChannelHandlerContext acceptor) {
+        ChannelPipeline pipeline = pipeline();
+        return pipeline.firstContext() == acceptor && pipeline.lastContext() == acceptor;
     }
 
     /**
@@ -139,6 +204,317 @@ abstract class AbstractXnioServerSocketChannel extends AbstractServerChannel imp
      */
     protected abstract <T> T getOption0(Option<T> option) throws IOException;
 
+    /**
+     * Returns the {@link AcceptHandoff} of the current {@link XnioIoThread}. Each {@link XnioIoThread} of the
+     * {@link org.xnio.XnioWorker} which accepts the connections gets its own, so it is the only producer of its
+     * {@link AcceptRing}.
+     */
+    private AcceptHandoff handoff(AcceptingChannel<StreamConnection> channel) {
+        initPerThread(channel);
+        AcceptHandoff[] handoffs = this.handoffs;
+        int number = XnioIoThread.currentThread().getNumber();
+        // only accessed by the XnioIoThread with this number
+        AcceptHandoff handoff = handoffs[number];
+        if (handoff == null) {
+            handoffs[number] = handoff = new AcceptHandoff(channel, XnioIoThread.currentThread());
+        }
+        return handoff;
+    }
+
+    /**
+     * Returns the {@link AcceptBudget} of the current {@link XnioIoThread}.
+     *
+     * @see XnioChannelOption#ADAPTIVE_BALANCING
+     */
+    private AcceptBudget budget(AcceptingChannel<StreamConnection> channel) {
+        initPerThread(channel);
+        AcceptBudget[] budgets = this.budgets;
+        int number = XnioIoThread.currentThread().getNumber();
+        // only accessed by the XnioIoThread with this number
+        AcceptBudget budget = budgets[number];
+        if (budget == null) {
+            budgets[number] = budget = new AcceptBudget(
+                    Math.min(config().getMaxMessagesPerRead(), ACCEPT_RING_CAPACITY), ACCEPT_RING_CAPACITY);
+        }
+        return budget;
+    }
+
+    private void initPerThread(AcceptingChannel<StreamConnection> channel) {
+        if (budgets == null) {
+            synchronized (this) {
+                if (budgets == null) {
+                    int threads = channel.getWorker().getIoThreadCount();
+                    handoffs = new AcceptHandoff[threads];
+                    budgets = new AcceptBudget[threads];
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the given accepted {@link StreamConnection} is admitted, otherwise it was passed to the
+     * {@link XnioConnectionRejectHandler} and closed.
+     */
+    private boolean admit(StreamConnection conn) {
+        XnioConnectionRejectHandler rejectHandler = config.getConnectionRejectHandler();
+        if (rejectHandler != null && admission.isAcceptSuspended()) {
+            admission.rejected();
+            try {
+                rejectHandler.reject(conn);
+            } catch (Throwable cause) {
+                pipeline().fireExceptionCaught(cause);
+            } finally {
+                IoUtils.safeClose(conn);
+            }
+            return false;
+        }
+        conn.getCloseSetter().set(connectionClosed);
+        if (admission.connectionOpened() >= config.getConnectionHighWater() && !admission.isAcceptSuspended()) {
+            updateAdmission();
+        }
+        return true;
+    }
+
+    /**
+     * Resumes accepting unless {@link #updateAdmission()} suspended it or auto read is off.
+     */
+    private void resumeAccepts(AcceptingChannel channel) {
+        synchronized (admission) {
+            if (!channel.isOpen() || !config.isAutoRead()) {
+                return;
+            }
+            if (admission.isAcceptSuspended() && config.getConnectionRejectHandler() == null) {
+                // resumed once the number of connections dropped to the low water mark
+                return;
+            }
+            channel.resumeAccepts();
+        }
+    }
+
+    private int lowWater() {
+        return Math.min(config.getConnectionLowWater(), config.getConnectionHighWater() - 1);
+    }
+
+    /**
+     * Suspends or resumes admitting connections if the number of open connections crossed the high or low water
+     * mark. Connections are opened and closed by many threads, so the transitions are serialized, which also keeps
+     * the {@link XnioAcceptEvent}s in order.
+     */
+    private void updateAdmission() {
+        synchronized (admission) {
+            for (;;) {
+                // checked again after every transition, as the connections are counted without holding the lock
+                int connections = admission.connections();
+                AcceptingChannel channel = xnioChannel();
+                if (!admission.isAcceptSuspended()) {
+                    if (connections < config.getConnectionHighWater()) {
+                        return;
+                    }
+                    admission.acceptSuspended(true);
+                    if (channel != null && config.getConnectionRejectHandler() == null) {
+                        // the connections wait in the backlog until enough of the open ones were closed
+                        channel.suspendAccepts();
+                    }
+                    fireAcceptEvent(XnioAcceptEvent.SUSPENDED);
+                } else {
+                    if (connections > lowWater()) {
+                        return;
+                    }
+                    admission.acceptSuspended(false);
+                    if (channel != null && channel.isOpen() && config.isAutoRead()) {
+                        channel.resumeAccepts();
+                    }
+                    fireAcceptEvent(XnioAcceptEvent.RESUMED);
+                }
+            }
+        }
+    }
+
+    private void fireAcceptEvent(final XnioAcceptEvent event) {
+        if (!isRegistered()) {
+            return;
+        }
+        try {
+            eventLoop().execute(new Runnable() {
+                @Override
+                public void run() {
+                    pipeline().fireUserEventTriggered(event);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the EventLoop is shutting down
+        }
+    }
+
+    /**
+     * Returns the {@link AcceptBudget}s of the {@link XnioIoThread}s which accepted connections so far, for testing.
+     */
+    AcceptBudget[] budgets() {
+        AcceptBudget[] budgets = this.budgets;
+        return budgets == null ? new AcceptBudget[0] : budgets.clone();
+    }
+
+    /**
+     * Passes the connections which were accepted by one {@link XnioIoThread} to the {@link EventLoop} of this
+     * channel. The same instance is submitted to the {@link EventLoop} for every batch, as long as it is not
+     * submitted already.
+     *
+     * Once the ring is full, accepting is suspended. XNIO calls the listener again and again for as long as it has
+     * connections queued for the {@link XnioIoThread}, so these are accepted and parked until the {@link EventLoop}
+     * freed space in the ring, then accepting is resumed.
+     */
+    private final class AcceptHandoff implements Runnable {
+        final AcceptRing<StreamConnection> ring = new AcceptRing<StreamConnection>(ACCEPT_RING_CAPACITY);
+        private final AcceptingChannel<StreamConnection> channel;
+        private final XnioIoThread thread;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean refillScheduled = new AtomicBoolean();
+        private final Runnable refill = new Runnable() {
+            @Override
+            public void run() {
+                refill();
+            }
+        };
+        // only accessed by the XnioIoThread
+        private final ArrayDeque<StreamConnection> parked = new ArrayDeque<StreamConnection>();
+        // only written by the XnioIoThread
+        private volatile boolean suspended;
+        volatile Throwable acceptError;
+
+        AcceptHandoff(AcceptingChannel<StreamConnection> channel, XnioIoThread thread) {
+            this.channel = channel;
+            this.thread = thread;
+        }
+
+        /**
+         * Returns {@code true} if the accepted connections must be {@link #park() parked}.
+         */
+        boolean isSuspended() {
+            return suspended || ring.isFull();
+        }
+
+        /**
+         * Suspends accepting and parks all connections XNIO queued for the {@link XnioIoThread}. Returns the number
+         * of accepted connections.
+         */
+        int park() throws IOException {
+            if (!suspended) {
+                channel.suspendAccepts();
+                suspended = true;
+            }
+            int accepted = 0;
+            for (;;) {
+                StreamConnection conn = channel.accept();
+                if (conn == null) {
+                    return accepted;
+                }
+                accepted++;
+                if (admit(conn)) {
+                    parked.add(conn);
+                }
+            }
+        }
+
+        /**
+         * Moves the parked connections to the ring and resumes accepting once all of them are handed over. Runs on
+         * the {@link XnioIoThread}.
+         */
+        private void refill() {
+            refillScheduled.set(false);
+            if (!suspended) {
+                return;
+            }
+            if (!channel.isOpen()) {
+                closeParked();
+                return;
+            }
+            while (!ring.isFull()) {
+                StreamConnection conn = parked.poll();
+                if (conn == null) {
+                    break;
+                }
+                ring.offer(conn);
+            }
+            if (parked.isEmpty()) {
+                suspended = false;
+                resumeAccepts(channel);
+            }
+            schedule();
+        }
+
+        private void closeParked() {
+            for (;;) {
+                StreamConnection conn = parked.poll();
+                if (conn == null) {
+                    break;
+                }
+                IoUtils.safeClose(conn);
+            }
+            suspended = false;
+        }
+
+        /**
+         * Submit this handoff to the {@link EventLoop}. Must be called by the {@link XnioIoThread}.
+         */
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    eventLoop().execute(this);
+                } catch (RejectedExecutionException e) {
+                    // the EventLoop is shutting down and will never take the connections. They are not closed by
+                    // the XnioWorker if it belongs to the child group, so close them here.
+                    scheduled.set(false);
+                    for (;;) {
+                        StreamConnection conn = poll();
+                        if (conn == null) {
+                            break;
+                        }
+                        IoUtils.safeClose(conn);
+                    }
+                    closeParked();
+                }
+            }
+        }
+
+        /**
+         * Poll the ring, which usually is only done by the {@link EventLoop}. Once it rejected this handoff the
+         * {@link XnioIoThread} takes over, while the {@link EventLoop} may still run a previous submission.
+         */
+        private synchronized StreamConnection poll() {
+            return ring.poll();
+        }
+
+        @Override
+        public void run() {
+            scheduled.set(false);
+            for (;;) {
+                StreamConnection conn = poll();
+                if (conn == null) {
+                    break;
+                }
+                try {
+                    pipeline().fireChannelRead(new WrappingXnioSocketChannel(AbstractXnioServerSocketChannel.this, conn));
+                } catch (Throwable cause) {
+                    pipeline().fireExceptionCaught(cause);
+                }
+            }
+            if (suspended && refillScheduled.compareAndSet(false, true)) {
+                try {
+                    thread.execute(refill);
+                } catch (RejectedExecutionException e) {
+                    // the XnioWorker is shutting down and closes the connections
+                    refillScheduled.set(false);
+                }
+            }
+            Throwable acceptError = this.acceptError;
+            if (acceptError != null) {
+                this.acceptError = null;
+                pipeline().fireExceptionCaught(acceptError);
+            }
+            pipeline().fireChannelReadComplete();
+        }
+    }
+
     /**
      * {@link ChannelListener} implementation which takes care of accept connections and fire them through the
      * {@link io.netty.channel.ChannelPipeline}.
@@ -150,62 +526,73 @@ abstract class AbstractXnioServerSocketChannel extends AbstractServerChannel imp
             if (!config.isAutoRead()) {
                 channel.suspendAccepts();
             }
+            AcceptBudget budget = config.isAdaptiveBalancing() ? budget(channel) : null;
+            int messagesToRead = config.getMaxMessagesPerRead();
+            if (budget != null) {
+                messagesToRead = budget.budget(messagesToRead);
+            }
+            int accepted = 0;
+            ChannelHandlerContext acceptor = localAcceptor;
             EventLoop loop = eventLoop();
-            if (loop.inEventLoop()) {
+            if (acceptor != null && isOnlyHandler(acceptor)) {
+                // initialize and register the accepted channels on this XnioIoThread, the acceptor of the
+                // ServerBootstrap does not keep any state and does not use its ChannelHandlerContext when reading,
+                // so it is fine to call it from all of them
                 try {
-                    int messagesToRead = config().getMaxMessagesPerRead();
-                    for (int i = 0; i < messagesToRead; i++) {
+                    ChannelInboundHandler handler = (ChannelInboundHandler) acceptor.handler();
+                    for (; accepted < messagesToRead; accepted++) {
                         StreamConnection conn = channel.accept();
                         if (conn == null) {
                             break;
                         }
-                        pipeline().fireChannelRead(new WrappingXnioSocketChannel(AbstractXnioServerSocketChannel.this, conn));
+                        if (admit(conn)) {
+                            handler.channelRead(acceptor,
+                                    new WrappingXnioSocketChannel(AbstractXnioServerSocketChannel.this, conn));
+                        }
                     }
                 } catch (Throwable cause) {
                     pipeline().fireExceptionCaught(cause);
                 }
-                pipeline().fireChannelReadComplete();
-            } else {
-                Throwable cause;
-                int messagesToRead = config().getMaxMessagesPerRead();
-                final StreamConnection[] array = connectionsArray(messagesToRead);
+            } else if (loop.inEventLoop()) {
                 try {
-                    for (int i = 0; i < messagesToRead; i++) {
+                    for (; accepted < messagesToRead; accepted++) {
                         StreamConnection conn = channel.accept();
-                        array[i] = conn;
                         if (conn == null) {
                             break;
                         }
+                        if (admit(conn)) {
+                            pipeline().fireChannelRead(
+                                    new WrappingXnioSocketChannel(AbstractXnioServerSocketChannel.this, conn));
+                        }
                     }
-                    cause = null;
-                } catch (Throwable e) {
-                    cause = e;
+                } catch (Throwable cause) {
+                    pipeline().fireExceptionCaught(cause);
                 }
-                final Throwable acceptError = cause;
-
-                eventLoop().execute( new Runnable() {
-
-                    @Override
-                    public void run() {
-                        try {
-                            for (int i = 0; i < array.length; i++) {
-                                StreamConnection conn = array[i];
-                                if (conn == null) {
-                                    break;
-                                }
-                                pipeline().fireChannelRead(new WrappingXnioSocketChannel(AbstractXnioServerSocketChannel.this, conn));
-                            }
-                        } catch (Throwable cause) {
-                            pipeline().fireExceptionCaught(cause);
+                pipeline().fireChannelReadComplete();
+            } else {
+                // hand the connections over to the EventLoop
+                AcceptHandoff handoff = handoff(channel);
+                try {
+                    for (; accepted < messagesToRead && !handoff.isSuspended(); accepted++) {
+                        StreamConnection conn = channel.accept();
+                        if (conn == null) {
+                            break;
                         }
-                        if (acceptError != null) {
-                            pipeline().fireExceptionCaught(acceptError);
+                        if (admit(conn)) {
+                            handoff.ring.offer(conn);
                         }
-                        pipeline().fireChannelReadComplete();
                     }
-                });
+                    if (handoff.isSuspended()) {
+                        accepted += handoff.park();
+                    }
+                } catch (Throwable cause) {
+                    handoff.acceptError = cause;
+                }
+                handoff.schedule();
+            }
+            if (budget != null) {
+                budget.accepted(accepted);
             }
-
         }
     }
 }
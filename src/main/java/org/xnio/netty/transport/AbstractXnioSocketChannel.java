@@ -20,7 +20,7 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -33,6 +33,7 @@ import org.xnio.conduits.ConduitStreamSourceChannel;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.AbstractChannel;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelConfig;
@@ -64,8 +65,12 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
 
     private static final ChannelMetadata META_DATA = new ChannelMetadata(false);
     private final XnioSocketChannelConfig config = new XnioSocketChannelConfig(this);
+    private final WriteSpinController writeSpin = new WriteSpinController(config);
 
     private Runnable flushTask;
+    private FileRegionTransfer fileRegionTransfer;
+    // true if a flush was scheduled via the XnioFlushScheduler of the event loop
+    boolean flushScheduled;
     private ChannelListener<ConduitStreamSinkChannel> writeListener;
     private volatile boolean closed;
 
@@ -95,13 +100,10 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
         if (!(loop instanceof XnioEventLoop)) {
             return false;
         }
-        ServerSocketChannel parent = parent();
-        if (parent != null) {
-            // if this channel has a parent we need to ensure that both EventLoopGroups are the same for XNIO
-            // to be sure it uses a Thread from the correct Worker.
-            if (parent.eventLoop().parent() != loop.parent()) {
-                return false;
-            }
+        if (this instanceof IoThreadPowered) {
+            // the connection is bound to its XnioIoThread, so only the EventLoop of this thread can drive it. It
+            // does not matter which EventLoopGroup the EventLoop belongs to.
+            return ((XnioEventLoop) loop).ioThread() == ((IoThreadPowered) this).ioThread();
         }
         return true;
     }
@@ -111,14 +113,42 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
         doClose();
     }
 
+    @Override
+    protected void doRegister() throws Exception {
+        ((XnioEventLoop) eventLoop()).channelRegistered(this);
+    }
 
+    @Override
+    protected void doDeregister() throws Exception {
+        ((XnioEventLoop) eventLoop()).channelDeregistered(this);
+    }
+
+    /**
+     * Returns the {@link XnioWriteSpinMetric} of the write loop of this channel.
+     */
+    public XnioWriteSpinMetric writeSpinMetric() {
+        return writeSpin.metric();
+    }
+
+    private void bytesTransferred(long bytes) {
+        if (bytes > 0) {
+            ((XnioEventLoop) eventLoop()).bytesTransferred(bytes);
+        }
+    }
 
     private void incompleteWrite(boolean setOpWrite) {
         // Did not write completely.
         if (setOpWrite) {
+            writeSpin.socketFull();
             setOpWrite();
         } else {
+            writeSpin.spinExhausted();
             // Schedule flush again later so other tasks can be picked up in the meantime
+            XnioFlushScheduler scheduler = XnioFlushScheduler.current();
+            if (scheduler != null) {
+                scheduler.schedule(this);
+                return;
+            }
             Runnable flushTask = this.flushTask;
             if (flushTask == null) {
                 flushTask = this.flushTask = new Runnable() {
@@ -147,9 +177,7 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
 
     @Override
     protected void doWrite(ChannelOutboundBuffer in) throws Exception {
-        int writeSpinCount = -1;
-
-        GatheringByteChannel sink = connection().getSinkChannel();
+        ConduitStreamSinkChannel sink = connection().getSinkChannel();
         for (;;) {
             // Do gathering write for a non-single buffer case.
             final int msgCount = in.size();
@@ -165,8 +193,9 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
                         long writtenBytes = 0;
                         boolean done = false;
                         boolean setOpWrite = false;
-                        for (int i = config().getWriteSpinCount() - 1; i >= 0; i--) {
+                        for (int i = writeSpin.budget() - 1; i >= 0; i--) {
                             final long localWrittenBytes = sink.write(nioBuffers, 0, nioBufferCnt);
+                            writeSpin.written(expectedWrittenBytes, localWrittenBytes);
                             if (localWrittenBytes == 0) {
                                 setOpWrite = true;
                                 break;
@@ -179,11 +208,12 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
                             }
                         }
 
+                        bytesTransferred(writtenBytes);
                         if (done) {
-                            // Release all buffers
-                            for (int i = msgCount; i > 0; i--) {
-                                in.remove();
-                            }
+                            writeSpin.completed();
+                            // Release all buffers which were written, the gathered buffers may stop in front of a
+                            // message which is not a ByteBuf, like a FileRegion, so don't release more than that
+                            in.removeBytes(writtenBytes);
 
                             // Finish the write loop if no new messages were flushed by in.remove().
                             if (in.isEmpty()) {
@@ -241,11 +271,10 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
                 boolean setOpWrite = false;
                 boolean done = false;
                 long flushedAmount = 0;
-                if (writeSpinCount == -1) {
-                    writeSpinCount = config().getWriteSpinCount();
-                }
-                for (int i = writeSpinCount - 1; i >= 0; i --) {
-                    int localFlushedAmount = buf.readBytes(sink, buf.readableBytes());
+                for (int i = writeSpin.budget() - 1; i >= 0; i --) {
+                    int expectedFlushedAmount = buf.readableBytes();
+                    int localFlushedAmount = buf.readBytes(sink, expectedFlushedAmount);
+                    writeSpin.written(expectedFlushedAmount, localFlushedAmount);
                     if (localFlushedAmount == 0) {
                         setOpWrite = true;
                         break;
@@ -259,8 +288,10 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
                 }
 
                 in.progress(flushedAmount);
+                bytesTransferred(flushedAmount);
 
                 if (done) {
+                    writeSpin.completed();
                     in.remove();
                 } else {
                     incompleteWrite(setOpWrite);
@@ -268,14 +299,21 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
                 }
             } else if (msg instanceof FileRegion) {
                 FileRegion region = (FileRegion) msg;
+                if (region.transferred() >= region.count()) {
+                    in.remove();
+                    continue;
+                }
+                FileRegionTransfer fileRegionTransfer = this.fileRegionTransfer;
+                if (fileRegionTransfer == null) {
+                    this.fileRegionTransfer = fileRegionTransfer = new FileRegionTransfer();
+                }
                 boolean setOpWrite = false;
                 boolean done = false;
                 long flushedAmount = 0;
-                if (writeSpinCount == -1) {
-                    writeSpinCount = config().getWriteSpinCount();
-                }
-                for (int i = writeSpinCount - 1; i >= 0; i --) {
-                    long localFlushedAmount = region.transferTo(sink, region.transferred());
+                for (int i = writeSpin.budget() - 1; i >= 0; i --) {
+                    long expectedFlushedAmount = region.count() - region.transferred();
+                    long localFlushedAmount = fileRegionTransfer.transferTo(region, sink);
+                    writeSpin.written(expectedFlushedAmount, localFlushedAmount);
                     if (localFlushedAmount == 0) {
                         setOpWrite = true;
                         break;
@@ -289,8 +327,10 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
                 }
 
                 in.progress(flushedAmount);
+                bytesTransferred(flushedAmount);
 
                 if (done) {
+                    writeSpin.completed();
                     in.remove();
                 } else {
                     incompleteWrite(setOpWrite);
@@ -377,6 +417,14 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
 
     final class ReadListener implements ChannelListener<ConduitStreamSourceChannel> {
         private RecvByteBufAllocator.Handle allocHandle;
+        private ByteBuf[] scatterBuffers;
+        private ByteBuffer[] scatterNioBuffers;
+        // the number of writable bytes of the buffers used by the last scattering read
+        private long scatterWritable;
+        private boolean batchReads;
+        // the buffers read during the current event if reads are batched
+        private ByteBuf batch;
+        private CompositeByteBuf batchComposite;
 
         private void removeReadOp(ConduitStreamSourceChannel channel) {
             if (channel.isReadResumed()) {
@@ -392,7 +440,44 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
             }
         }
 
+        /**
+         * Fire the given buffer through the {@link ChannelPipeline} or add it to the batch which is fired once
+         * the read event was processed.
+         */
+        private void fireChannelRead(ChannelPipeline pipeline, ByteBufAllocator allocator, ByteBuf byteBuf) {
+            if (!batchReads) {
+                pipeline.fireChannelRead(byteBuf);
+                return;
+            }
+            addToBatch(allocator, byteBuf);
+        }
+
+        private void addToBatch(ByteBufAllocator allocator, ByteBuf byteBuf) {
+            ByteBuf batch = this.batch;
+            if (batch == null) {
+                this.batch = byteBuf;
+                return;
+            }
+            CompositeByteBuf batchComposite = this.batchComposite;
+            if (batchComposite == null) {
+                batchComposite = allocator.compositeBuffer(Integer.MAX_VALUE);
+                batchComposite.addComponent(true, batch);
+                this.batch = this.batchComposite = batchComposite;
+            }
+            batchComposite.addComponent(true, byteBuf);
+        }
+
+        private void fireBatch(ChannelPipeline pipeline) {
+            ByteBuf batch = this.batch;
+            if (batch != null) {
+                this.batch = null;
+                batchComposite = null;
+                pipeline.fireChannelRead(batch);
+            }
+        }
+
         private void handleReadException(ChannelPipeline pipeline, ByteBuf byteBuf, Throwable cause, boolean close) {
+            fireBatch(pipeline);
             if (byteBuf != null) {
                 if (byteBuf.isReadable()) {
                     pipeline.fireChannelRead(byteBuf);
@@ -411,62 +496,140 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
             }
         }
 
+        /**
+         * Fill up to {@code count} buffers by a single scattering read and fire the buffers which received data
+         * through the {@link ChannelPipeline} as one message, or add them to the batch if reads are batched.
+         * Returns the number of bytes read.
+         */
+        private long scatteringRead(ConduitStreamSourceChannel channel, ChannelPipeline pipeline,
+                                    ByteBufAllocator allocator, int capacity, int count) throws IOException {
+            ByteBuf[] buffers = scatterBuffers;
+            if (buffers == null || buffers.length < count) {
+                buffers = scatterBuffers = new ByteBuf[count];
+            }
+            ByteBuffer[] nioBuffers = scatterNioBuffers;
+            if (nioBuffers == null || nioBuffers.length < count) {
+                nioBuffers = scatterNioBuffers = new ByteBuffer[count];
+            }
+            int allocated = 0;
+            int nioBufferCount = 0;
+            try {
+                long writable = 0;
+                for (; allocated < count; allocated++) {
+                    ByteBuf buf = allocator.ioBuffer(capacity);
+                    buffers[allocated] = buf;
+                    int index = buf.writerIndex();
+                    int length = buf.writableBytes();
+                    writable += length;
+                    if (buf.nioBufferCount() == 1) {
+                        nioBuffers[nioBufferCount++] = buf.internalNioBuffer(index, length);
+                    } else {
+                        ByteBuffer[] bufNioBuffers = buf.nioBuffers(index, length);
+                        if (nioBuffers.length < nioBufferCount + bufNioBuffers.length + count - allocated - 1) {
+                            nioBuffers = scatterNioBuffers = Arrays.copyOf(nioBuffers,
+                                    nioBufferCount + bufNioBuffers.length + count - allocated - 1);
+                        }
+                        System.arraycopy(bufNioBuffers, 0, nioBuffers, nioBufferCount, bufNioBuffers.length);
+                        nioBufferCount += bufNioBuffers.length;
+                    }
+                }
+                scatterWritable = writable;
+
+                long localReadAmount = channel.read(nioBuffers, 0, nioBufferCount);
+                if (localReadAmount <= 0) {
+                    return localReadAmount;
+                }
+                ((AbstractXnioUnsafe) unsafe()).readPending = false;
+                long remaining = localReadAmount;
+                for (int i = 0; i < allocated; i++) {
+                    ByteBuf buf = buffers[i];
+                    int length = (int) Math.min(remaining, buf.writableBytes());
+                    if (length == 0) {
+                        // nothing was read into this and the following buffers, they are released below
+                        break;
+                    }
+                    buffers[i] = null;
+                    buf.writerIndex(buf.writerIndex() + length);
+                    remaining -= length;
+                    addToBatch(allocator, buf);
+                }
+                if (!batchReads) {
+                    fireBatch(pipeline);
+                }
+                return localReadAmount;
+            } finally {
+                Arrays.fill(nioBuffers, 0, nioBufferCount, null);
+                for (int i = 0; i < allocated; i++) {
+                    ByteBuf buf = buffers[i];
+                    if (buf != null) {
+                        buffers[i] = null;
+                        buf.release();
+                    }
+                }
+            }
+        }
+
         @Override
         public void handleEvent(ConduitStreamSourceChannel channel) {
             final ChannelConfig config = config();
             final ChannelPipeline pipeline = pipeline();
             final ByteBufAllocator allocator = config.getAllocator();
-            final int maxMessagesPerRead = config.getMaxMessagesPerRead();
+            final int scatteringReadBuffers = AbstractXnioSocketChannel.this.config.getScatteringReadBuffers();
+            batchReads = AbstractXnioSocketChannel.this.config.isBatchReads();
             RecvByteBufAllocator.Handle allocHandle = this.allocHandle;
             if (allocHandle == null) {
                 this.allocHandle = allocHandle = config.getRecvByteBufAllocator().newHandle();
-                this.allocHandle.reset(config);
             }
+            allocHandle.reset(config);
 
             ByteBuf byteBuf = null;
-            int messages = 0;
             boolean close = false;
             try {
-                int byteBufCapacity = allocHandle.guess();
                 int totalReadAmount = 0;
                 do {
-                    byteBuf = allocator.ioBuffer(byteBufCapacity);
-                    int writable = byteBuf.writableBytes();
-                    int localReadAmount = byteBuf.writeBytes(channel, byteBuf.writableBytes());
+                    int byteBufCapacity = allocHandle.guess();
+                    int localReadAmount;
+                    if (scatteringReadBuffers > 1) {
+                        long scatteredReadAmount = scatteringRead(channel, pipeline, allocator, byteBufCapacity,
+                                scatteringReadBuffers);
+                        allocHandle.attemptedBytesRead((int) Math.min(Integer.MAX_VALUE, scatterWritable));
+                        localReadAmount = (int) Math.min(Integer.MAX_VALUE, scatteredReadAmount);
+                    } else {
+                        byteBuf = allocator.ioBuffer(byteBufCapacity);
+                        allocHandle.attemptedBytesRead(byteBuf.writableBytes());
+                        localReadAmount = byteBuf.writeBytes(channel, byteBuf.writableBytes());
+                    }
+                    allocHandle.lastBytesRead(localReadAmount);
                     if (localReadAmount <= 0) {
-                        // nothing was read release the buffer
-                        byteBuf.release();
+                        if (byteBuf != null) {
+                            // nothing was read release the buffer
+                            byteBuf.release();
+                            byteBuf = null;
+                        }
                         close = localReadAmount < 0;
                         break;
                     }
-                    ((AbstractXnioUnsafe) unsafe()).readPending = false;
-                    pipeline.fireChannelRead(byteBuf);
-                    byteBuf = null;
+                    allocHandle.incMessagesRead(1);
+                    if (byteBuf != null) {
+                        ((AbstractXnioUnsafe) unsafe()).readPending = false;
+                        fireChannelRead(pipeline, allocator, byteBuf);
+                        byteBuf = null;
+                    }
 
                     if (totalReadAmount >= Integer.MAX_VALUE - localReadAmount) {
                         // Avoid overflow.
                         totalReadAmount = Integer.MAX_VALUE;
                         break;
                     }
-
                     totalReadAmount += localReadAmount;
-                    
-                    // stop reading
-                    if (!config.isAutoRead()) {
-                        break;
-                    }
-
-                    if (localReadAmount < writable) {
-                        // Read less than what the buffer can hold,
-                        // which might mean we drained the recv buffer completely.
-                        break;
-                    }
-                } while (++ messages < maxMessagesPerRead && allocHandle.continueReading());
+                    // stops once auto read is off, the buffers were not filled completely, which might mean the
+                    // receive buffer was drained, or max messages per read were reached
+                } while (allocHandle.continueReading());
 
-                allocHandle.incMessagesRead(messages);
-                allocHandle.lastBytesRead(totalReadAmount);
                 allocHandle.readComplete();
+                bytesTransferred(totalReadAmount);
 
+                fireBatch(pipeline);
                 pipeline.fireChannelReadComplete();
 
                 if (close) {
@@ -485,6 +648,7 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
                 if (!config.isAutoRead() && !((AbstractXnioUnsafe) unsafe()).readPending) {
                     removeReadOp(channel);
                 }
+                ((XnioEventLoop) eventLoop()).runPendingTasks();
             }
         }
     }
@@ -493,6 +657,7 @@ abstract class AbstractXnioSocketChannel  extends AbstractChannel implements Soc
         @Override
         public void handleEvent(ConduitStreamSinkChannel channel) {
             ((AbstractXnioUnsafe)unsafe()).forceFlush();
+            ((XnioEventLoop) eventLoop()).runPendingTasks();
         }
     }
 
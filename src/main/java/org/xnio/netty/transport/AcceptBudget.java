@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+/**
+ * Adaptive number of connections a single {@link org.xnio.XnioIoThread} accepts each time the accept listener is
+ * invoked. The budget doubles whenever it was used up, as more connections are likely queued for the thread, and is
+ * halved whenever less than a quarter of it was used, so a burst is drained in few invocations while a calm listener
+ * does not keep the thread from handling the IO of its other channels. Must only be used by a single thread.
+ */
+final class AcceptBudget {
+    private final int max;
+    private int min;
+    private int budget;
+    private int peak;
+    private long accepted;
+
+    AcceptBudget(int min, int max) {
+        if (min <= 0) {
+            throw new IllegalArgumentException("min: " + min + " (expected: > 0)");
+        }
+        if (max < min) {
+            throw new IllegalArgumentException("max: " + max + " (expected: >= " + min + ")");
+        }
+        this.max = max;
+        this.min = min;
+        budget = peak = min;
+    }
+
+    /**
+     * Returns the number of connections to accept by the next invocation, which is never less than {@code min}.
+     */
+    int budget(int min) {
+        if (min != this.min) {
+            // the configuration changed
+            this.min = min = Math.min(Math.max(min, 1), max);
+            budget = Math.max(budget, min);
+        }
+        return budget;
+    }
+
+    /**
+     * Records that the last invocation accepted the given number of connections.
+     */
+    void accepted(int count) {
+        accepted += count;
+        if (count >= budget) {
+            budget = Math.min(max, budget << 1);
+            peak = Math.max(peak, budget);
+        } else if (count < budget >>> 2) {
+            budget = Math.max(min, budget >>> 1);
+        }
+    }
+
+    int budget() {
+        return budget;
+    }
+
+    int peak() {
+        return peak;
+    }
+
+    long accepted() {
+        return accepted;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Bounded single-producer/single-consumer ring which hands accepted {@link org.xnio.StreamConnection}s from the
+ * {@link org.xnio.XnioIoThread} which accepted them to the {@link io.netty.channel.EventLoop} of the server channel.
+ * {@link #offer(Object)} and {@link #isFull()} must only be called by the producer, {@link #poll()} only
+ * by the consumer.
+ */
+final class AcceptRing<E> {
+    private static final AtomicLongFieldUpdater<AcceptRing<?>> HEAD_UPDATER =
+            newUpdater("head");
+    private static final AtomicLongFieldUpdater<AcceptRing<?>> TAIL_UPDATER =
+            newUpdater("tail");
+
+    private final Object[] buffer;
+    private final int mask;
+    // only written by the consumer
+    private volatile long head;
+    // only written by the producer
+    private volatile long tail;
+    // the last head the producer has seen, so it does not need to read the volatile head on every offer
+    private long headCache;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static AtomicLongFieldUpdater<AcceptRing<?>> newUpdater(String field) {
+        return (AtomicLongFieldUpdater) AtomicLongFieldUpdater.newUpdater(AcceptRing.class, field);
+    }
+
+    AcceptRing(int capacity) {
+        if (capacity <= 0 || (capacity & capacity - 1) != 0) {
+            throw new IllegalArgumentException("capacity: " + capacity + " (expected: power of two)");
+        }
+        buffer = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns {@code true} if the ring can not take another connection.
+     */
+    boolean isFull() {
+        long tail = this.tail;
+        if (tail - headCache < buffer.length) {
+            return false;
+        }
+        headCache = head;
+        return tail - headCache >= buffer.length;
+    }
+
+    /**
+     * Adds the connection and returns {@code true}, or returns {@code false} if the ring is full.
+     */
+    boolean offer(E connection) {
+        if (isFull()) {
+            return false;
+        }
+        long tail = this.tail;
+        buffer[(int) tail & mask] = connection;
+        // publishes the connection to the consumer
+        TAIL_UPDATER.lazySet(this, tail + 1);
+        return true;
+    }
+
+    /**
+     * Removes and returns the oldest connection or returns {@code null} if the ring is empty.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long head = this.head;
+        if (head == tail) {
+            return null;
+        }
+        int index = (int) head & mask;
+        E connection = (E) buffer[index];
+        buffer[index] = null;
+        // frees the slot for the producer
+        HEAD_UPDATER.lazySet(this, head + 1);
+        return connection;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.Collection;
+
+/**
+ * {@link EventExecutor} which allows to submit many tasks at once, so the thread which runs them only needs to be
+ * woken up a single time. The {@link io.netty.channel.EventLoop}s of a {@link XnioEventLoopGroup} implement it.
+ *
+ * Tasks which are submitted via {@link #execute(Runnable)}, {@link #executeAll(Collection)} and
+ * {@link #lazyExecute(Runnable)} run in the order in which they were submitted.
+ */
+public interface BatchingEventExecutor extends EventExecutor {
+
+    /**
+     * Execute all given tasks in the order of the {@link Collection}.
+     */
+    void executeAll(Collection<? extends Runnable> tasks);
+
+    /**
+     * Execute the given task without waking up the thread for it. The task runs together with the next task which
+     * is submitted via {@link #execute(Runnable)} or {@link #executeAll(Collection)}, or once the thread woke up to
+     * handle IO. A task which is submitted to an otherwise idle executor waits until then.
+     */
+    void lazyExecute(Runnable task);
+}
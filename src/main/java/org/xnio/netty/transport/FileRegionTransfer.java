@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.FileRegion;
+import io.netty.util.IllegalReferenceCountException;
+import io.netty.util.internal.ReflectionUtil;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+import org.xnio.conduits.ConduitStreamSinkChannel;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.channels.FileChannel;
+
+/**
+ * Transfers the {@link FileRegion}s of a channel into its {@link ConduitStreamSinkChannel}.
+ *
+ * {@link DefaultFileRegion#transferTo(java.nio.channels.WritableByteChannel, long)} passes the sink to
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, which can only use
+ * {@code sendfile} if the target is a {@link java.nio.channels.SocketChannel}, so the bytes are copied through the
+ * heap. If the private state of {@link DefaultFileRegion} can be accessed, like the native transports of Netty do,
+ * its {@link FileChannel} is handed to {@link ConduitStreamSinkChannel#transferFrom(FileChannel, long, long)}
+ * instead, so the XNIO conduits can do the zero-copy transfer themselves. Every other case, and every failure to
+ * access the state, falls back to the public {@link FileRegion#transferTo(java.nio.channels.WritableByteChannel,
+ * long)}. The zero-copy transfer can be disabled with the {@code org.xnio.netty.fileRegion.zeroCopy} system property.
+ */
+final class FileRegionTransfer {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(FileRegionTransfer.class);
+    private static final Field FILE_FIELD;
+    private static final Field TRANSFERRED_FIELD;
+    // cleared once the fields can not be accessed anymore
+    private static volatile boolean zeroCopy;
+
+    static {
+        Field file = null;
+        Field transferred = null;
+        if (SystemPropertyUtil.getBoolean("org.xnio.netty.fileRegion.zeroCopy", true)) {
+            try {
+                file = field("file", FileChannel.class);
+                transferred = field("transferred", long.class);
+            } catch (Throwable cause) {
+                logger.debug("Unable to access DefaultFileRegion, transferring file regions via the heap", cause);
+                file = transferred = null;
+            }
+        }
+        FILE_FIELD = file;
+        TRANSFERRED_FIELD = transferred;
+        zeroCopy = file != null;
+    }
+
+    // the region whose last transfer wrote nothing
+    private FileRegion stalled;
+
+    private static Field field(String name, Class<?> type) throws NoSuchFieldException {
+        Field field = DefaultFileRegion.class.getDeclaredField(name);
+        int modifiers = field.getModifiers();
+        if (field.getType() != type || Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+            throw new NoSuchFieldException(name);
+        }
+        Throwable cause = ReflectionUtil.trySetAccessible(field, false);
+        if (cause != null) {
+            throw (NoSuchFieldException) new NoSuchFieldException(name).initCause(cause);
+        }
+        return field;
+    }
+
+    /**
+     * Return {@code true} if {@link DefaultFileRegion}s are handed to
+     * {@link ConduitStreamSinkChannel#transferFrom(FileChannel, long, long)}.
+     */
+    static boolean isZeroCopy() {
+        return zeroCopy;
+    }
+
+    /**
+     * Transfer the not yet transferred bytes of the given {@link FileRegion} into the sink and return the number of
+     * transferred bytes.
+     */
+    long transferTo(FileRegion region, ConduitStreamSinkChannel sink) throws IOException {
+        long written;
+        if (zeroCopy && region.getClass() == DefaultFileRegion.class) {
+            written = transferFile((DefaultFileRegion) region, sink);
+        } else {
+            written = region.transferTo(sink, region.transferred());
+        }
+        stalled = written == 0 ? region : null;
+        return written;
+    }
+
+    private long transferFile(DefaultFileRegion region, ConduitStreamSinkChannel sink) throws IOException {
+        long transferred = region.transferred();
+        long count = region.count() - transferred;
+        if (count == 0) {
+            return 0L;
+        }
+        if (region.refCnt() == 0) {
+            throw new IllegalReferenceCountException(0);
+        }
+        // no-op if the file was opened before
+        region.open();
+        FileChannel file;
+        try {
+            file = (FileChannel) FILE_FIELD.get(region);
+        } catch (IllegalAccessException e) {
+            return fallback(region, sink, e);
+        }
+        long written = sink.transferFrom(file, region.position() + transferred, count);
+        if (written > 0) {
+            try {
+                TRANSFERRED_FIELD.setLong(region, transferred + written);
+            } catch (IllegalAccessException e) {
+                // the bytes were sent, so the region must not send them again
+                throw new IOException("Unable to update the transferred bytes of " + region, e);
+            }
+        } else if (written == 0 && stalled == region) {
+            // the sink did not take anything although it was writable in between, the file may have been truncated
+            long size = file.size();
+            if (region.position() + region.count() > size) {
+                throw new IOException("Underlying file size " + size + " smaller then requested count "
+                        + region.count());
+            }
+        }
+        return written;
+    }
+
+    private static long fallback(DefaultFileRegion region, ConduitStreamSinkChannel sink, IllegalAccessException e)
+            throws IOException {
+        zeroCopy = false;
+        logger.debug("Unable to access DefaultFileRegion, transferring file regions via the heap", e);
+        return region.transferTo(sink, region.transferred());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * Decides when a task which is scheduled at a fixed rate runs next, if it could not keep up with its rate because it
+ * ran too long or the {@link org.xnio.XnioIoThread} was busy. All deadlines stay aligned to the deadline of the
+ * first run, so the rate never drifts.
+ *
+ * The policy which is used by the {@link io.netty.channel.EventLoop}s of a {@link XnioEventLoopGroup} can be set via
+ * {@link XnioEventLoopGroup#setFixedRateCatchUp(FixedRateCatchUp)}. It defaults to the value of the
+ * {@code org.xnio.netty.eventloop.fixedRateCatchUp} system property or {@link #BURST} if it is not set.
+ */
+public enum FixedRateCatchUp {
+    /**
+     * Run once for every missed deadline, back to back, until the task caught up. This is what
+     * {@link java.util.concurrent.ScheduledExecutorService#scheduleAtFixedRate} does.
+     */
+    BURST {
+        @Override
+        long nextDeadline(long deadline, long period, long now) {
+            return deadline + period;
+        }
+    },
+    /**
+     * Drop the missed runs and run at the next deadline which is not in the past.
+     */
+    SKIP {
+        @Override
+        long nextDeadline(long deadline, long period, long now) {
+            long next = deadline + period;
+            if (next - now < 0) {
+                next += ((now - next) / period + 1) * period;
+            }
+            return next;
+        }
+    },
+    /**
+     * Run once right away for all missed deadlines and continue at the following deadlines.
+     */
+    COALESCE {
+        @Override
+        long nextDeadline(long deadline, long period, long now) {
+            long next = deadline + period;
+            if (next - now < 0) {
+                // the last deadline which was missed
+                next += (now - next) / period * period;
+            }
+            return next;
+        }
+    };
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(FixedRateCatchUp.class);
+    private static final String PROPERTY = "org.xnio.netty.eventloop.fixedRateCatchUp";
+
+    static final FixedRateCatchUp DEFAULT = forName(SystemPropertyUtil.get(PROPERTY, BURST.name()));
+
+    /**
+     * Returns the policy with the given case-insensitive name or {@link #BURST} if there is none.
+     */
+    static FixedRateCatchUp forName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown -D{}: {}, using {}", PROPERTY, name, BURST);
+            return BURST;
+        }
+    }
+
+    /**
+     * Returns the deadline of the next run of a task which ran for the given deadline. All values are in
+     * {@link System#nanoTime()} nanoseconds.
+     */
+    abstract long nextDeadline(long deadline, long period, long now);
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+
+import java.util.Map;
+
+/**
+ * Looks up the handler which a {@link io.netty.bootstrap.ServerBootstrap} adds to the {@link ChannelPipeline} of the
+ * server channel to initialize and register the accepted channels.
+ */
+final class ServerBootstrapAcceptors {
+    private static final String ACCEPTOR_CLASS = "io.netty.bootstrap.ServerBootstrap$ServerBootstrapAcceptor";
+
+    private ServerBootstrapAcceptors() {
+        // Utility
+    }
+
+    /**
+     * Returns the {@link ChannelHandlerContext} of the handler which the {@link io.netty.bootstrap.ServerBootstrap}
+     * added to the given {@link ChannelPipeline} to initialize and register the accepted channels or {@code null} if
+     * there is none.
+     */
+    static ChannelHandlerContext find(ChannelPipeline pipeline) {
+        for (Map.Entry<String, ChannelHandler> entry: pipeline) {
+            if (entry.getValue().getClass().getName().equals(ACCEPTOR_CLASS)) {
+                return pipeline.context(entry.getValue());
+            }
+        }
+        return null;
+    }
+}
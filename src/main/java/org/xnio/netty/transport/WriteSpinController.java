@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import io.netty.channel.ChannelConfig;
+
+/**
+ * Adaptive replacement of the fixed {@link ChannelConfig#getWriteSpinCount()} of the write loop. The budget starts
+ * at the configured write spin count, is halved each time the socket did not accept any more bytes, which means the
+ * remote peer consumes slowly, and is doubled each time the whole budget was used up while every write made
+ * progress, up to {@value #MAX_BUDGET_FACTOR} times the configured write spin count. If the budget was used up but a
+ * write accepted less than half of the offered bytes, the socket fills up faster than the peer drains it, so the
+ * budget is halved instead.
+ *
+ * Must only be used from the event loop of the channel.
+ */
+final class WriteSpinController {
+    static final int MAX_BUDGET_FACTOR = 4;
+
+    private final ChannelConfig config;
+    private final XnioWriteSpinMetric metric = new XnioWriteSpinMetric();
+    private int writeSpinCount = -1;
+    private int budget;
+    // set if a write of the current write loop accepted less than half of the offered bytes
+    private boolean shortWrite;
+
+    WriteSpinController(ChannelConfig config) {
+        this.config = config;
+    }
+
+    XnioWriteSpinMetric metric() {
+        return metric;
+    }
+
+    /**
+     * Returns the number of writes which may be done before the write loop yields to the event loop.
+     */
+    int budget() {
+        int writeSpinCount = config.getWriteSpinCount();
+        if (writeSpinCount != this.writeSpinCount) {
+            // the configuration changed, start over
+            this.writeSpinCount = writeSpinCount;
+            setBudget(writeSpinCount);
+        }
+        return budget;
+    }
+
+    /**
+     * Records a single write of {@code written} out of {@code expected} bytes.
+     */
+    void written(long expected, long written) {
+        if (written > 0 && written < expected) {
+            metric.partialWrite();
+            if (written < expected >>> 1) {
+                shortWrite = true;
+            }
+        }
+    }
+
+    /**
+     * Records that the write loop wrote the whole message.
+     */
+    void completed() {
+        shortWrite = false;
+        metric.completed();
+    }
+
+    /**
+     * Records that the write loop stopped as the socket did not accept any more bytes.
+     */
+    void socketFull() {
+        shortWrite = false;
+        metric.socketFull();
+        setBudget(Math.max(1, budget >>> 1));
+    }
+
+    /**
+     * Records that the write loop used up the whole budget while the socket still accepted bytes.
+     */
+    void spinExhausted() {
+        metric.spinExhausted();
+        if (shortWrite) {
+            shortWrite = false;
+            setBudget(Math.max(1, budget >>> 1));
+            return;
+        }
+        long max = (long) writeSpinCount * MAX_BUDGET_FACTOR;
+        setBudget((int) Math.min(max, (long) budget << 1));
+    }
+
+    private void setBudget(int budget) {
+        this.budget = budget;
+        metric.writeSpinBudget(budget);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+/**
+ * User event which is fired through the {@link io.netty.channel.ChannelPipeline} of a
+ * {@link io.netty.channel.socket.ServerSocketChannel} of the XNIO transport when it stops admitting connections
+ * because {@link XnioChannelOption#CONNECTION_HIGH_WATER} was reached, and again when it starts admitting them after
+ * the number of connections dropped to {@link XnioChannelOption#CONNECTION_LOW_WATER}.
+ */
+public final class XnioAcceptEvent {
+    /**
+     * Fired once the number of open connections reached the high water mark.
+     */
+    public static final XnioAcceptEvent SUSPENDED = new XnioAcceptEvent(true);
+
+    /**
+     * Fired once the number of open connections dropped to the low water mark again.
+     */
+    public static final XnioAcceptEvent RESUMED = new XnioAcceptEvent(false);
+
+    private final boolean suspended;
+
+    private XnioAcceptEvent(boolean suspended) {
+        this.suspended = suspended;
+    }
+
+    /**
+     * Returns {@code true} if new connections are not admitted anymore.
+     */
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    @Override
+    public String toString() {
+        return suspended ? "XnioAcceptEvent(SUSPENDED)" : "XnioAcceptEvent(RESUMED)";
+    }
+}
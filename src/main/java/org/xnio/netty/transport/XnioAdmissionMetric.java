@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gauges of the connections which were accepted by a {@link io.netty.channel.socket.ServerSocketChannel} of the XNIO
+ * transport, which show how it enforces {@link XnioChannelOption#CONNECTION_HIGH_WATER} and
+ * {@link XnioChannelOption#CONNECTION_LOW_WATER}.
+ */
+public final class XnioAdmissionMetric {
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong rejectedConnections = new AtomicLong();
+    // only updated while holding the lock of the metric
+    private volatile boolean acceptSuspended;
+    private volatile long acceptSuspensions;
+
+    XnioAdmissionMetric() {
+    }
+
+    /**
+     * Returns the number of accepted connections which are still open.
+     */
+    public int connections() {
+        return connections.get();
+    }
+
+    /**
+     * Returns {@code true} if no new connections are admitted because the high water mark was reached.
+     */
+    public boolean isAcceptSuspended() {
+        return acceptSuspended;
+    }
+
+    /**
+     * Returns the number of times the high water mark was reached.
+     */
+    public long acceptSuspensions() {
+        return acceptSuspensions;
+    }
+
+    /**
+     * Returns the number of connections which were closed right after they were accepted, because the high water mark
+     * was reached and a {@link XnioConnectionRejectHandler} is used.
+     */
+    public long rejectedConnections() {
+        return rejectedConnections.get();
+    }
+
+    int connectionOpened() {
+        return connections.incrementAndGet();
+    }
+
+    int connectionClosed() {
+        return connections.decrementAndGet();
+    }
+
+    void rejected() {
+        rejectedConnections.incrementAndGet();
+    }
+
+    void acceptSuspended(boolean acceptSuspended) {
+        this.acceptSuspended = acceptSuspended;
+        if (acceptSuspended) {
+            acceptSuspensions++;
+        }
+    }
+}
@@ -26,15 +26,30 @@ import io.netty.channel.ChannelOption;
 public final class XnioChannelOption<T> extends ChannelOption<T>{
 
     /**
-     * @see {@link org.xnio.Options#CONNECTION_HIGH_WATER}
+     * The number of open accepted connections at which the server channel stops admitting new connections and fires
+     * {@link XnioAcceptEvent#SUSPENDED}. The connections are counted by the transport itself, across all
+     * {@link org.xnio.XnioIoThread}s which accept for the server channel, from the moment they are accepted until they
+     * are closed. Once the mark is reached accepting is suspended, or, if a {@link #CONNECTION_REJECT_HANDLER} is
+     * set, new connections are rejected. Defaults to {@link Integer#MAX_VALUE}.
      */
     public static final ChannelOption<Integer> CONNECTION_HIGH_WATER = valueOf("CONNECTION_HIGH_WATER");
 
     /**
-     * @see {@link org.xnio.Options#CONNECTION_LOW_WATER}
+     * The number of open accepted connections at which the server channel admits new connections again after it
+     * reached {@link #CONNECTION_HIGH_WATER}, and fires {@link XnioAcceptEvent#RESUMED}. Like the high water mark it
+     * is enforced by the transport for the whole server channel. Defaults to the high water mark, a value which is not
+     * below it is treated as one less than it.
      */
     public static final ChannelOption<Integer> CONNECTION_LOW_WATER = valueOf("CONNECTION_LOW_WATER");
 
+    /**
+     * If set, the server channel keeps accepting connections once it reached {@link #CONNECTION_HIGH_WATER}, passes
+     * them to the given {@link XnioConnectionRejectHandler} and closes them right away. Otherwise it stops accepting,
+     * so new connections wait in the backlog of the socket.
+     */
+    public static final ChannelOption<XnioConnectionRejectHandler> CONNECTION_REJECT_HANDLER =
+            valueOf("CONNECTION_REJECT_HANDLER");
+
     /**
      * @see {@link org.xnio.Options#BALANCING_TOKENS}
      */
@@ -45,6 +60,58 @@ public final class XnioChannelOption<T> extends ChannelOption<T>{
      */
     public static final ChannelOption<Integer> BALANCING_CONNECTIONS = valueOf("BALANCING_CONNECTIONS");
 
+    /**
+     * The number of buffers which are filled by a single scattering read. The buffers which received data are fired
+     * through the {@link io.netty.channel.ChannelPipeline} as one message, which is a
+     * {@link io.netty.buffer.CompositeByteBuf} if more than one buffer was filled. The default of {@code 1} disables
+     * scattering reads, so every read fills exactly one buffer.
+     */
+    public static final ChannelOption<Integer> SCATTERING_READ_BUFFERS = valueOf("SCATTERING_READ_BUFFERS");
+
+    /**
+     * If {@code true} all buffers which are read while handling a single read event are fired through the
+     * {@link io.netty.channel.ChannelPipeline} as one message, which is a {@link io.netty.buffer.CompositeByteBuf}
+     * if more than one buffer was read.
+     */
+    public static final ChannelOption<Boolean> BATCH_READS = valueOf("BATCH_READS");
+
+    /**
+     * If {@code true} every {@link org.xnio.XnioIoThread} adapts the number of connections it accepts at once to the
+     * rate the connections arrive at, starting at {@link ChannelOption#MAX_MESSAGES_PER_READ}. XNIO only reads
+     * {@link #BALANCING_TOKENS} and {@link #BALANCING_CONNECTIONS} when the server channel is created, this tunes the
+     * accepting at runtime instead.
+     */
+    public static final ChannelOption<Boolean> ADAPTIVE_BALANCING = valueOf("ADAPTIVE_BALANCING");
+
+    /**
+     * The {@link XnioEventLoopGroup} the accepted channels are registered with. It must be set if a
+     * {@link io.netty.bootstrap.ServerBootstrap} uses separate boss and child groups. XNIO can not move a connection
+     * to another {@link org.xnio.XnioWorker}, so the connections are accepted by the worker of this group. Only takes
+     * effect if set before the server channel is bound. If it is not set, the connections are accepted by the worker
+     * of the group of the server channel and stay on its threads, and the child group logs a warning once it
+     * registers the first of them. A {@link io.netty.bootstrap.ServerBootstrap} with separate groups is set up like
+     * this:
+     *
+     * <pre>
+     * new ServerBootstrap().group(boss, workers)
+     *         .option(XnioChannelOption.CHILD_GROUP, workers)
+     *         .channel(XnioServerSocketChannel.class)
+     * </pre>
+     */
+    public static final ChannelOption<XnioEventLoopGroup> CHILD_GROUP = valueOf("CHILD_GROUP");
+
+    /**
+     * If {@code true} the {@link org.xnio.XnioIoThread} which accepted a connection also initializes and registers
+     * the accepted channel, instead of passing it through the {@link io.netty.channel.ChannelPipeline} of the server
+     * channel on its {@link io.netty.channel.EventLoop}. This is only done while the
+     * {@link io.netty.bootstrap.ServerBootstrap} acceptor is the only handler in the pipeline of the server channel,
+     * as handlers must not be called outside of their {@link io.netty.channel.EventLoop}. If a handler was added via
+     * {@link io.netty.bootstrap.ServerBootstrap#handler(io.netty.channel.ChannelHandler)} or later on, the accepted
+     * channels are passed through the pipeline as usual. Only takes effect if set before the server channel is bound
+     * by a {@link io.netty.bootstrap.ServerBootstrap}.
+     */
+    public static final ChannelOption<Boolean> LOCAL_ACCEPT = valueOf("LOCAL_ACCEPT");
+
     @SuppressWarnings("unused")
     private XnioChannelOption(String name) {
         super(name);
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import org.xnio.StreamConnection;
+
+import java.io.IOException;
+
+/**
+ * Handler which is invoked for every connection that is rejected because the
+ * {@link io.netty.channel.socket.ServerSocketChannel} reached {@link XnioChannelOption#CONNECTION_HIGH_WATER}.
+ *
+ * @see XnioChannelOption#CONNECTION_REJECT_HANDLER
+ */
+public interface XnioConnectionRejectHandler {
+
+    /**
+     * Called by the {@link org.xnio.XnioIoThread} which accepted the given {@link StreamConnection}, which is closed
+     * once this method returns. Implementations may write a short response to the
+     * {@link StreamConnection#getSinkChannel()} but must never block.
+     */
+    void reject(StreamConnection connection) throws IOException;
+}
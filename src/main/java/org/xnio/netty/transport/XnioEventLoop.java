@@ -19,38 +19,104 @@ package org.xnio.netty.transport;
 
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.util.NettyRuntime;
 import io.netty.util.concurrent.AbstractEventExecutor;
 import io.netty.util.concurrent.DefaultPromise;
 import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.concurrent.PromiseNotifier;
 import io.netty.util.concurrent.ScheduledFuture;
-import org.xnio.XnioExecutor;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
 import org.xnio.XnioIoThread;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Delayed;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link EventLoop} implementation which uses a {@link XnioIoThread}.
  *
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
-final class XnioEventLoop extends AbstractEventExecutor implements EventLoop, IoThreadPowered{
+final class XnioEventLoop extends AbstractEventExecutor implements EventLoop, BatchingEventExecutor, IoThreadPowered{
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(XnioEventLoop.class);
+    // the number of bytes transferred by the channels of the loop is halved once per period
+    static final long LOAD_DECAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // how often a graceful shutdown checks if the channels of the loop are drained
+    private static final long DRAIN_CHECK_MILLIS = 10;
+    // the number of tasks which run before the IoThread gets the chance to handle IO again
+    private static final int MAX_TASKS_PER_RUN = 1024;
+    // the IoThread does not handle IO while it spins, so the time is bounded
+    static final long MAX_SPIN_BEFORE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    static final long DEFAULT_SPIN_BEFORE_PARK_NANOS = Math.min(MAX_SPIN_BEFORE_PARK_NANOS, Math.max(0,
+            SystemPropertyUtil.getLong("org.xnio.netty.eventloop.spinBeforeParkNanos", 0)));
+    // a task can only be submitted while the IoThread spins if there is another CPU to submit it
+    private static final boolean SPIN = NettyRuntime.availableProcessors() > 1;
+
     private final XnioIoThread executor;
     private final EventLoopGroup parent;
+    private final AtomicInteger channels = new AtomicInteger();
+    // channels this loop was chosen for which did not complete their registration yet
+    private final AtomicInteger reservedChannels = new AtomicInteger();
+    private final Queue<Runnable> tasks = PlatformDependent.newMpscQueue();
+    // set while runTasks is submitted to the IoThread, so many tasks only cause a single wakeup
+    private final AtomicBoolean tasksScheduled = new AtomicBoolean();
+    private final Runnable runTasks = new Runnable() {
+        @Override
+        public void run() {
+            runScheduledTasks(SPIN ? spinBeforeParkNanos : 0);
+        }
+    };
+    // runs the tasks which were left by the last run, XNIO runs it before it selects again so it must not spin
+    private final Runnable resumeTasks = new Runnable() {
+        @Override
+        public void run() {
+            runScheduledTasks(0);
+        }
+    };
+    private volatile long spinBeforeParkNanos = DEFAULT_SPIN_BEFORE_PARK_NANOS;
+    private volatile FixedRateCatchUp fixedRateCatchUp = FixedRateCatchUp.DEFAULT;
+    // only accessed from the IoThread
+    private final Set<Channel> registered = Collections.newSetFromMap(new IdentityHashMap<Channel, Boolean>());
+    // only updated from the IoThread
+    private volatile long recentBytes;
+    private volatile long recentBytesTime = System.nanoTime();
+    private volatile long lastActivity = System.nanoTime();
+    private volatile XnioTimerWheel timerWheel;
+    // only used if the loop does not belong to a XnioEventLoopGroup
+    private final AtomicBoolean shuttingDown;
+    private final Promise<Void> terminationFuture;
 
     XnioEventLoop(EventLoopGroup parent, XnioIoThread executor) {
         this.parent = parent ;
         this.executor = executor;
+        shuttingDown = null;
+        terminationFuture = null;
     }
 
     XnioEventLoop(XnioIoThread executor) {
         this.parent = this;
         this.executor = executor;
+        shuttingDown = new AtomicBoolean();
+        terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
     }
 
     @Override
@@ -58,6 +124,141 @@ final class XnioEventLoop extends AbstractEventExecutor implements EventLoop, Io
         return executor;
     }
 
+    /**
+     * Returns the number of socket channels which are registered with this {@link EventLoop}.
+     */
+    int registeredChannels() {
+        return channels.get();
+    }
+
+    /**
+     * Returns the number of socket channels which are registered with this {@link EventLoop} plus the number of
+     * channels it was chosen for which did not complete their registration yet.
+     */
+    int chosenChannels() {
+        return channels.get() + reservedChannels.get();
+    }
+
+    /**
+     * Reserves a slot for a channel which is registered via {@link #registerReserved(Channel, ChannelPromise)} next.
+     */
+    void reserveChannel() {
+        reservedChannels.incrementAndGet();
+    }
+
+    /**
+     * Registers the given {@link Channel} for which a slot was reserved via {@link #reserveChannel()}. The slot is
+     * released once the registration completed, whether it succeeded or not, before the given
+     * {@link ChannelPromise} is notified.
+     */
+    ChannelFuture registerReserved(Channel channel, final ChannelPromise promise) {
+        if (channel == null || promise == null) {
+            reservedChannels.decrementAndGet();
+            throw new NullPointerException(channel == null ? "channel" : "promise");
+        }
+        ChannelPromise registered = channel.newPromise();
+        registered.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                reservedChannels.decrementAndGet();
+                if (future.isSuccess()) {
+                    promise.trySuccess();
+                } else if (future.isCancelled()) {
+                    promise.cancel(false);
+                } else {
+                    promise.tryFailure(future.cause());
+                }
+            }
+        });
+        register(channel, registered);
+        return promise;
+    }
+
+    /**
+     * Must be called from the {@link XnioIoThread} once the given {@link Channel} was registered.
+     */
+    void channelRegistered(Channel channel) {
+        registered.add(channel);
+        if (!(channel instanceof ServerChannel)) {
+            channels.incrementAndGet();
+        }
+    }
+
+    /**
+     * Must be called from the {@link XnioIoThread} once the given {@link Channel} was deregistered.
+     */
+    void channelDeregistered(Channel channel) {
+        if (registered.remove(channel) && !(channel instanceof ServerChannel)) {
+            channels.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of bytes which were recently read and written by the channels of this {@link EventLoop}.
+     * The count decays by half every {@link #LOAD_DECAY_NANOS}.
+     */
+    long recentBytes() {
+        return decay(recentBytes, System.nanoTime() - recentBytesTime);
+    }
+
+    /**
+     * Records bytes which were read or written by a channel of this {@link EventLoop}. Must be called from the
+     * {@link XnioIoThread}.
+     */
+    void bytesTransferred(long bytes) {
+        long now = System.nanoTime();
+        long time = recentBytesTime;
+        long periods = (now - time) / LOAD_DECAY_NANOS;
+        long recent = recentBytes;
+        if (periods > 0) {
+            recent = decay(recent, now - time);
+            recentBytesTime = time + periods * LOAD_DECAY_NANOS;
+        }
+        recentBytes = recent + bytes;
+        lastActivity = now;
+    }
+
+    private static long decay(long bytes, long elapsedNanos) {
+        long periods = elapsedNanos / LOAD_DECAY_NANOS;
+        return periods >= Long.SIZE ? 0 : bytes >>> periods;
+    }
+
+    /**
+     * Drains the channels of this {@link EventLoop}. The server channels are closed right away, so no more connections
+     * are accepted. All other channels are closed as soon as they have no pending writes and no bytes were transferred
+     * for the quiet period, or once the deadline passed. The returned {@link Future} is notified when all channels
+     * were closed.
+     *
+     * @param quietPeriodNanos  the time in nanoseconds for which no bytes must have been transferred
+     * @param deadline          the {@link System#nanoTime()} at which the channels are closed in any case
+     */
+    Future<Void> drain(long quietPeriodNanos, long deadline) {
+        Promise<Void> drained = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
+        try {
+            executor.execute(new Drain(quietPeriodNanos, deadline, drained));
+        } catch (RejectedExecutionException e) {
+            // the worker is shutting down already and closes the channels itself
+            drained.setSuccess(null);
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the {@link XnioTimerWheel} which runs the scheduled tasks of this {@link EventLoop}.
+     */
+    XnioTimerWheel timerWheel() {
+        XnioTimerWheel timerWheel = this.timerWheel;
+        if (timerWheel == null) {
+            synchronized (this) {
+                timerWheel = this.timerWheel;
+                if (timerWheel == null) {
+                    this.timerWheel = timerWheel = new XnioTimerWheel(executor);
+                }
+            }
+        }
+        return timerWheel;
+    }
+
     @Override
     public void shutdown() {
         // Not supported, just ignore
@@ -98,162 +299,313 @@ final class XnioEventLoop extends AbstractEventExecutor implements EventLoop, Io
 
     @Override
     public boolean isShuttingDown() {
-        return executor.getWorker().isShutdown();
+        if (parent != this) {
+            return parent.isShuttingDown();
+        }
+        return shuttingDown.get() || executor.getWorker().isShutdown();
     }
 
+    /**
+     * The {@link XnioIoThread} of a {@link EventLoop} which belongs to a {@link XnioEventLoopGroup} can only be shut
+     * down together with all other threads of the {@link org.xnio.XnioWorker}, so this shuts down the whole group.
+     * Otherwise the {@link XnioIoThread} is owned by somebody else and only the channels of this {@link EventLoop}
+     * are drained.
+     */
     @Override
     public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
-        return newFailedFuture(new UnsupportedOperationException());
+        if (parent != this) {
+            return parent.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+        XnioEventLoopGroup.checkShutdownArguments(quietPeriod, timeout, unit);
+        if (shuttingDown.compareAndSet(false, true)) {
+            drain(unit.toNanos(quietPeriod), System.nanoTime() + unit.toNanos(timeout))
+                    .addListener(new PromiseNotifier<Void, Future<Void>>(terminationFuture));
+        }
+        return terminationFuture;
     }
 
     @Override
     public Future<?> terminationFuture() {
-        return newFailedFuture(new UnsupportedOperationException());
+        if (parent != this) {
+            return parent.terminationFuture();
+        }
+        return terminationFuture;
     }
 
     @Override
     public boolean isShutdown() {
-        return executor.getWorker().isShutdown();
+        if (parent != this) {
+            return parent.isShutdown();
+        }
+        return terminationFuture.isDone() || executor.getWorker().isShutdown();
     }
 
     @Override
     public boolean isTerminated() {
-        return executor.getWorker().isTerminated();
+        if (parent != this) {
+            return parent.isTerminated();
+        }
+        return terminationFuture.isDone() || executor.getWorker().isTerminated();
     }
 
     @Override
     public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-        return executor.getWorker().awaitTermination(timeout, unit);
+        if (parent != this) {
+            return parent.awaitTermination(timeout, unit);
+        }
+        return terminationFuture.await(timeout, unit) || executor.getWorker().isTerminated();
     }
 
     @Override
     public void execute(Runnable command) {
-        executor.execute(command);
+        if (command == null) {
+            throw new NullPointerException("command");
+        }
+        checkRunning();
+        tasks.offer(command);
+        scheduleTasks();
     }
 
     @Override
-    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
-        return schedule(Executors.callable(command), delay, unit);
+    public void executeAll(Collection<? extends Runnable> commands) {
+        if (commands == null) {
+            throw new NullPointerException("commands");
+        }
+        for (Runnable command: commands) {
+            if (command == null) {
+                throw new NullPointerException("command");
+            }
+        }
+        if (commands.isEmpty()) {
+            return;
+        }
+        checkRunning();
+        for (Runnable command: commands) {
+            tasks.offer(command);
+        }
+        scheduleTasks();
     }
 
     @Override
-    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
-        ScheduledFutureWrapper<V> wrapper = new ScheduledFutureWrapper<V>(callable, delay, unit);
-        wrapper.key = executor.executeAfter(wrapper, delay, unit);
-        return wrapper;
+    public void lazyExecute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("command");
+        }
+        checkRunning();
+        // no wakeup, the task is picked up by the next runTasks or once the IoThread handled IO for a channel
+        tasks.offer(command);
     }
 
-    @Override
-    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
-        FixedScheduledFuture wrapper = new FixedScheduledFuture(command, initialDelay, delay, unit);
-        wrapper.key = executor.executeAfter(wrapper, delay, unit);
-        return wrapper;
+    private void checkRunning() {
+        // nothing would run the task anymore, so it must not be queued
+        if (isShutdown() || executor.getState() == Thread.State.TERMINATED) {
+            throw new RejectedExecutionException("event loop shut down");
+        }
     }
 
-    @Override
-    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
-        FixedRateScheduledFuture wrapper = new FixedRateScheduledFuture(command, initialDelay, period, unit);
-        wrapper.key = executor.executeAfter(wrapper, initialDelay, unit);
-        return wrapper;
+    /**
+     * Runs the pending tasks, which includes the ones submitted via {@link #lazyExecute(Runnable)}, unless they are
+     * already scheduled. Must be called from the {@link XnioIoThread} after it handled IO for a channel of this loop.
+     */
+    void runPendingTasks() {
+        assert inEventLoop();
+        if (!tasks.isEmpty() && tasksScheduled.compareAndSet(false, true)) {
+            // do not spin, the IoThread is in the middle of handling IO
+            runScheduledTasks(0);
+        }
     }
 
-    @Override
-    public XnioEventLoop next() {
-        return this;
+    private void runScheduledTasks(long spinNanos) {
+        // tasksScheduled stays set while the tasks run, so tasks which are submitted meanwhile do not wake up
+        // the IoThread
+        boolean pending = runTasks(spinNanos);
+        tasksScheduled.set(false);
+        if (pending || !tasks.isEmpty()) {
+            try {
+                scheduleTasks(resumeTasks);
+            } catch (RejectedExecutionException e) {
+                logger.warn("Tasks of a XnioEventLoop were dropped because its IoThread was shut down.", e);
+            }
+        }
     }
 
-    private final class FixedRateScheduledFuture extends ScheduledFutureWrapper<Object> {
-        private final long period;
-        private int count = 1;
-        private final long initialDelay;
-        private FixedRateScheduledFuture(Runnable task, long delay, long period, TimeUnit unit) {
-            super(Executors.callable(task), delay, unit);
-            this.initialDelay = delay;
-            this.period = period;
-        }
+    private void scheduleTasks() {
+        scheduleTasks(runTasks);
+    }
 
-        @Override
-        public void run() {
+    private void scheduleTasks(Runnable run) {
+        if (tasksScheduled.compareAndSet(false, true)) {
             try {
-                task.call();
-                start = System.nanoTime();
-                delay = initialDelay + period * (++count);
-                key = executor.executeAfter(this,delay, TimeUnit.NANOSECONDS);
-            } catch (Throwable cause) {
-                tryFailure(cause);
+                executor.execute(run);
+            } catch (RejectedExecutionException e) {
+                // nothing runs the queued tasks, so they must not stay queued. The queue is only drained while
+                // tasksScheduled is set, so there is never more than one consumer
+                dropTasks();
+                tasksScheduled.set(false);
+                if (!tasks.isEmpty()) {
+                    // queued meanwhile by threads which saw tasksScheduled set
+                    try {
+                        scheduleTasks(run);
+                    } catch (RejectedExecutionException ignore) {
+                        // dropped as well
+                    }
+                }
+                throw e;
             }
         }
-
     }
 
-    private final class FixedScheduledFuture extends ScheduledFutureWrapper<Object> {
-        private long furtherDelay;
-        private FixedScheduledFuture(Runnable task, long initialDelay, long delay, TimeUnit unit) {
-            super(Executors.callable(task), initialDelay, unit);
-            this.furtherDelay = unit.toNanos(delay);
+    private void dropTasks() {
+        while (tasks.poll() != null) {
+            // drop
         }
+    }
 
-        @Override
-        public void run() {
-            try {
-                task.call();
-                start = System.nanoTime();
-                delay = furtherDelay;
-                key = executor.executeAfter(this, furtherDelay, TimeUnit.NANOSECONDS);
-            } catch (Throwable cause) {
-                tryFailure(cause);
+    /**
+     * Runs the submitted tasks and returns {@code true} if more tasks are pending, which should run after the
+     * {@link XnioIoThread} handled IO.
+     */
+    private boolean runTasks(long spinNanos) {
+        long spinDeadline = 0;
+        boolean spun = false;
+        int ran = 0;
+        while (ran < MAX_TASKS_PER_RUN) {
+            Runnable task = tasks.poll();
+            if (task != null) {
+                safeExecute(task);
+                ran++;
+                continue;
+            }
+            if (spinNanos <= 0) {
+                return false;
             }
+            // wait for the next task for a while before the IoThread parks in select(). The time is shared by all
+            // waits of the run, so tasks which keep arriving within it cannot hold off IO which became ready
+            long now = System.nanoTime();
+            if (!spun) {
+                spun = true;
+                spinDeadline = now + spinNanos;
+            } else if (now - spinDeadline >= 0) {
+                return false;
+            }
+            Thread.onSpinWait();
         }
+        return true;
+    }
 
+    /**
+     * Sets the time the {@link XnioIoThread} spins on the task queue when it ran out of tasks, before it goes back
+     * to {@code select()}. {@code 0} disables spinning.
+     */
+    void spinBeforePark(long nanos) {
+        spinBeforeParkNanos = nanos;
     }
 
-    private class ScheduledFutureWrapper<V> extends DefaultPromise<V> implements ScheduledFuture<V>, Runnable {
-        protected volatile XnioExecutor.Key key;
-        protected final Callable<V> task;
-        protected volatile long delay;
-        protected volatile long start;
+    long spinBeforePark() {
+        return spinBeforeParkNanos;
+    }
+
+    /**
+     * Sets the {@link FixedRateCatchUp} of the tasks which are scheduled at a fixed rate from now on.
+     */
+    void fixedRateCatchUp(FixedRateCatchUp fixedRateCatchUp) {
+        this.fixedRateCatchUp = fixedRateCatchUp;
+    }
 
-        ScheduledFutureWrapper(Callable<V> task, long delay, TimeUnit unit) {
-            this.task = task;
-            this.start = System.nanoTime();
-            this.delay = unit.toNanos(delay);
+    FixedRateCatchUp fixedRateCatchUp() {
+        return fixedRateCatchUp;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        if (command == null) {
+            throw new NullPointerException("command");
         }
+        return new XnioScheduledFuture<Void>(this, command, delay, unit).schedule();
+    }
 
-        @Override
-        public long getDelay(TimeUnit unit) {
-            long remaining = (start + delay) - System.nanoTime();
-            if (remaining < 1 || unit == TimeUnit.NANOSECONDS) {
-                return remaining;
-            }
-            return unit.convert(remaining, TimeUnit.NANOSECONDS);
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        if (callable == null) {
+            throw new NullPointerException("callable");
         }
+        return new XnioScheduledFuture<V>(this, callable, delay, unit).schedule();
+    }
 
-        @Override
-        public int compareTo(Delayed o) {
-            long d = getDelay(TimeUnit.NANOSECONDS) - o.getDelay(TimeUnit.NANOSECONDS);
-            if (d < 0) {
-                return -1;
-            } else if (d > 0) {
-                return 1;
-            } else {
-                return 0;
-            }
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (command == null) {
+            throw new NullPointerException("command");
+        }
+        if (delay <= 0) {
+            throw new IllegalArgumentException("delay: " + delay + " (expected: > 0)");
+        }
+        return new XnioScheduledFuture<Void>(this, command, initialDelay, delay, unit).schedule();
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (command == null) {
+            throw new NullPointerException("command");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("period: " + period + " (expected: > 0)");
+        }
+        return new XnioScheduledFuture<Void>(this, command, initialDelay, period, unit, fixedRateCatchUp).schedule();
+    }
+
+    @Override
+    public XnioEventLoop next() {
+        return this;
+    }
+
+    private final class Drain implements Runnable {
+        private final long quietPeriodNanos;
+        private final long deadline;
+        private final Promise<Void> drained;
+        private boolean acceptsStopped;
+
+        Drain(long quietPeriodNanos, long deadline, Promise<Void> drained) {
+            this.quietPeriodNanos = quietPeriodNanos;
+            this.deadline = deadline;
+            this.drained = drained;
         }
 
         @Override
         public void run() {
-            try {
-                trySuccess(task.call());
-            } catch (Throwable t) {
-                tryFailure(t);
+            // lazy tasks must not be left behind by the shutdown
+            runPendingTasks();
+            if (!acceptsStopped) {
+                acceptsStopped = true;
+                for (Channel channel: new ArrayList<Channel>(registered)) {
+                    if (channel instanceof ServerChannel) {
+                        channel.unsafe().close(channel.unsafe().voidPromise());
+                    }
+                }
+            }
+            long now = System.nanoTime();
+            if (deadline - now > 0 && (now - lastActivity < quietPeriodNanos || hasPendingWrites())) {
+                try {
+                    executor.executeAfter(this, DRAIN_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // the worker is shutting down, close what is left
+                }
             }
+            for (Channel channel: new ArrayList<Channel>(registered)) {
+                channel.unsafe().close(channel.unsafe().voidPromise());
+            }
+            drained.trySuccess(null);
         }
 
-        @Override
-        public boolean cancel(boolean mayInterruptIfRunning) {
-            return setUncancellable() && key.remove();
+        private boolean hasPendingWrites() {
+            for (Channel channel: registered) {
+                ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+                if (buffer != null && !buffer.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
         }
     }
-
-
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import io.netty.util.concurrent.DefaultEventExecutorChooserFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory;
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link EventExecutorChooserFactory}s which can be used by a {@link XnioEventLoopGroup} to choose the
+ * {@link io.netty.channel.EventLoop} which is returned by {@link XnioEventLoopGroup#next()}.
+ */
+public final class XnioEventLoopChooserFactory implements EventExecutorChooserFactory {
+
+    /**
+     * Chooses the event loops one after the other, which is the default.
+     */
+    public static final EventExecutorChooserFactory ROUND_ROBIN = DefaultEventExecutorChooserFactory.INSTANCE;
+
+    /**
+     * Picks two random event loops and chooses the one which has fewer registered channels.
+     */
+    public static final XnioEventLoopChooserFactory POWER_OF_TWO_CHOICES =
+            new XnioEventLoopChooserFactory(Mode.POWER_OF_TWO_CHOICES);
+
+    /**
+     * Chooses the event loop which has the fewest registered channels. Ties are broken round-robin.
+     */
+    public static final XnioEventLoopChooserFactory LEAST_CONNECTIONS =
+            new XnioEventLoopChooserFactory(Mode.LEAST_CONNECTIONS);
+
+    /**
+     * Chooses the event loop which has the lowest load. The load of an event loop is its share of all registered
+     * channels plus its share of the bytes which were recently read and written by the channels of all event loops,
+     * so a loop which serves a few busy connections is avoided as well as a loop which serves many idle ones. Ties are
+     * broken round-robin.
+     */
+    public static final XnioEventLoopChooserFactory LEAST_LOADED =
+            new XnioEventLoopChooserFactory(Mode.LEAST_LOADED);
+
+    private enum Mode {
+        POWER_OF_TWO_CHOICES, LEAST_CONNECTIONS, LEAST_LOADED
+    }
+
+    private final Mode mode;
+
+    private XnioEventLoopChooserFactory(Mode mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public EventExecutorChooser newChooser(EventExecutor[] executors) {
+        XnioEventLoop[] loops = new XnioEventLoop[executors.length];
+        for (int i = 0; i < executors.length; i++) {
+            if (!(executors[i] instanceof XnioEventLoop)) {
+                throw new IllegalArgumentException("executor " + executors[i] + " is not a XnioEventLoop");
+            }
+            loops[i] = (XnioEventLoop) executors[i];
+        }
+        if (loops.length < 2) {
+            return ROUND_ROBIN.newChooser(executors);
+        }
+        switch (mode) {
+            case LEAST_CONNECTIONS:
+                return new LeastConnectionsChooser(loops);
+            case LEAST_LOADED:
+                return new LeastLoadedChooser(loops);
+            default:
+                return new PowerOfTwoChoicesChooser(loops);
+        }
+    }
+
+    /**
+     * Returns the load of each of the given loops, see {@link #LEAST_LOADED}.
+     */
+    static double[] loads(XnioEventLoop[] loops) {
+        int[] channels = new int[loops.length];
+        long[] bytes = new long[loops.length];
+        long totalChannels = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < loops.length; i++) {
+            channels[i] = loops[i].chosenChannels();
+            bytes[i] = loops[i].recentBytes();
+            totalChannels += channels[i];
+            totalBytes += bytes[i];
+        }
+        double[] loads = new double[loops.length];
+        for (int i = 0; i < loops.length; i++) {
+            loads[i] = (double) channels[i] / Math.max(1, totalChannels) + (double) bytes[i] / Math.max(1, totalBytes);
+        }
+        return loads;
+    }
+
+    /**
+     * {@link EventExecutorChooser} which counts the channels an event loop was chosen for right away, so the
+     * channels which are registered in a burst are balanced before the event loops completed their registration.
+     */
+    abstract static class BalancingChooser implements EventExecutorChooser {
+
+        /**
+         * Chooses an event loop for a channel which is registered with it and reserves a slot for the channel.
+         *
+         * @see XnioEventLoop#registerReserved(io.netty.channel.Channel, io.netty.channel.ChannelPromise)
+         */
+        final XnioEventLoop reserve() {
+            XnioEventLoop loop = choose();
+            loop.reserveChannel();
+            return loop;
+        }
+
+        @Override
+        public final EventExecutor next() {
+            return choose();
+        }
+
+        abstract XnioEventLoop choose();
+    }
+
+    private static final class LeastConnectionsChooser extends BalancingChooser {
+        private final AtomicInteger idx = new AtomicInteger();
+        private final XnioEventLoop[] loops;
+
+        LeastConnectionsChooser(XnioEventLoop[] loops) {
+            this.loops = loops;
+        }
+
+        @Override
+        XnioEventLoop choose() {
+            // start at a different loop each time so loops with the same number of channels are used in turn
+            int start = (idx.getAndIncrement() & Integer.MAX_VALUE) % loops.length;
+            XnioEventLoop chosen = loops[start];
+            int min = chosen.chosenChannels();
+            for (int i = 1; i < loops.length && min > 0; i++) {
+                XnioEventLoop loop = loops[(start + i) % loops.length];
+                int channels = loop.chosenChannels();
+                if (channels < min) {
+                    chosen = loop;
+                    min = channels;
+                }
+            }
+            return chosen;
+        }
+    }
+
+    private static final class LeastLoadedChooser extends BalancingChooser {
+        private final AtomicInteger idx = new AtomicInteger();
+        private final XnioEventLoop[] loops;
+
+        LeastLoadedChooser(XnioEventLoop[] loops) {
+            this.loops = loops;
+        }
+
+        @Override
+        XnioEventLoop choose() {
+            double[] loads = loads(loops);
+            // start at a different loop each time so loops with the same load are used in turn
+            int start = (idx.getAndIncrement() & Integer.MAX_VALUE) % loops.length;
+            int chosen = start;
+            for (int i = 1; i < loops.length; i++) {
+                int index = (start + i) % loops.length;
+                if (loads[index] < loads[chosen]) {
+                    chosen = index;
+                }
+            }
+            return loops[chosen];
+        }
+    }
+
+    private static final class PowerOfTwoChoicesChooser extends BalancingChooser {
+        private final XnioEventLoop[] loops;
+
+        PowerOfTwoChoicesChooser(XnioEventLoop[] loops) {
+            this.loops = loops;
+        }
+
+        @Override
+        XnioEventLoop choose() {
+            int first = PlatformDependent.threadLocalRandom().nextInt(loops.length);
+            int second = PlatformDependent.threadLocalRandom().nextInt(loops.length - 1);
+            if (second >= first) {
+                second++;
+            }
+            XnioEventLoop a = loops[first];
+            XnioEventLoop b = loops[second];
+            return b.chosenChannels() < a.chosenChannels() ? b : a;
+        }
+    }
+}
@@ -22,36 +22,99 @@ import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.util.concurrent.AbstractEventExecutorGroup;
+import io.netty.util.concurrent.DefaultEventExecutorChooserFactory;
+import io.netty.util.concurrent.DefaultPromise;
 import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory;
 import io.netty.util.concurrent.Future;
-import io.netty.util.concurrent.ImmediateEventExecutor;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
 import org.xnio.OptionMap;
 import org.xnio.Options;
 import org.xnio.Xnio;
+import org.xnio.XnioIoThread;
 import org.xnio.XnioWorker;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@link EventLoopGroup} implementation which uses a {@link XnioWorker} under the covers. This means all operations
  * will be performed by it.
+ *
+ * The group holds one {@link EventLoop} per {@link XnioIoThread} of the {@link XnioWorker}, the
+ * {@link EventExecutorChooserFactory} which is used to create it decides which of them is returned by
+ * {@link #next()}.
+ *
+ * {@link #shutdownGracefully(long, long, TimeUnit)} stops accepting new connections, gives the open connections the
+ * chance to flush their pending writes, closes them and then shuts down the {@link XnioWorker}. The
+ * {@link #terminationFuture()} is notified once the {@link XnioWorker} terminated.
  */
 public final class XnioEventLoopGroup extends AbstractEventExecutorGroup implements EventLoopGroup {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(XnioEventLoopGroup.class);
+    // how often the termination of the worker is checked after it was shut down
+    private static final long TERMINATION_CHECK_MILLIS = 10;
 
     private final XnioWorker worker;
+    private final XnioEventLoop[] loops;
+    private final Map<XnioIoThread, XnioEventLoop> loopsByThread;
+    // the loops of threads which belong to other workers, created once a channel of such a thread is registered
+    private final ConcurrentMap<XnioIoThread, XnioEventLoop> foreignLoops = PlatformDependent.newConcurrentHashMap();
+    // set once an accepted channel of another worker was registered, see XnioChannelOption.CHILD_GROUP
+    private final AtomicBoolean foreignChildWarned = new AtomicBoolean();
+    private final List<EventExecutor> readonlyLoops;
+    private final EventExecutorChooserFactory.EventExecutorChooser chooser;
+    private final AtomicBoolean shuttingDown = new AtomicBoolean();
+    private final AtomicBoolean terminationWatched = new AtomicBoolean();
+    private final Promise<Void> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
 
     /**
      * Create a new {@link XnioEventLoopGroup} using the provided {@link XnioWorker}.
      *
      */
     public XnioEventLoopGroup(XnioWorker worker) {
+        this(worker, DefaultEventExecutorChooserFactory.INSTANCE);
+    }
+
+    /**
+     * Create a new {@link XnioEventLoopGroup} using the provided {@link XnioWorker} and
+     * {@link EventExecutorChooserFactory}.
+     *
+     * @see XnioEventLoopChooserFactory
+     */
+    public XnioEventLoopGroup(XnioWorker worker, EventExecutorChooserFactory chooserFactory) {
         if (worker == null) {
             throw new NullPointerException("worker");
         }
+        if (chooserFactory == null) {
+            throw new NullPointerException("chooserFactory");
+        }
         this.worker = worker;
+        int threads = worker.getIoThreadCount();
+        loops = new XnioEventLoop[threads];
+        loopsByThread = new IdentityHashMap<XnioIoThread, XnioEventLoop>(threads);
+        for (int i = 0; i < threads; i++) {
+            XnioIoThread thread = worker.getIoThread(i);
+            loops[i] = new XnioEventLoop(this, thread);
+            loopsByThread.put(thread, loops[i]);
+        }
+        readonlyLoops = Collections.<EventExecutor>unmodifiableList(new ArrayList<EventExecutor>(
+                Arrays.asList(loops)));
+        chooser = chooserFactory.newChooser(loops);
     }
 
     /**
@@ -71,17 +134,122 @@ public final class XnioEventLoopGroup extends AbstractEventExecutorGroup impleme
      * @throws IOException
      */
     public XnioEventLoopGroup(int numThreads) throws IOException {
-        this(Xnio.getInstance().createWorker(OptionMap.create(Options.WORKER_IO_THREADS, numThreads)));
+        this(numThreads, DefaultEventExecutorChooserFactory.INSTANCE);
+    }
+
+    /**
+     * Create a new {@link XnioEventLoopGroup} which creates a new {@link XnioWorker} by itself and use it for all
+     * operations. Using the given number of Threads to handle the IO and the given
+     * {@link EventExecutorChooserFactory} to choose between them.
+     *
+     * @throws IOException
+     */
+    public XnioEventLoopGroup(int numThreads, EventExecutorChooserFactory chooserFactory) throws IOException {
+        this(Xnio.getInstance().createWorker(OptionMap.create(Options.WORKER_IO_THREADS, numThreads)),
+                chooserFactory);
     }
 
     @Override
     public void shutdown() {
+        shuttingDown.set(true);
         worker.shutdown();
+        watchTermination();
+    }
+
+    /**
+     * Lets the {@link XnioIoThread}s spin on the task queue of their {@link EventLoop} for the given time once they ran
+     * out of tasks, before they go back to {@code select()}. Tasks which are submitted meanwhile run without waking
+     * up the thread, which trades CPU time for latency. The {@link XnioIoThread}s do not handle IO while they spin,
+     * so the time is at most 100 microseconds per wakeup. Spinning is skipped if only a single CPU is available, as
+     * no other thread can submit a task meanwhile. {@code 0} disables spinning, which is the default unless the
+     * {@code org.xnio.netty.eventloop.spinBeforeParkNanos} system property is set.
+     */
+    public void setSpinBeforePark(long time, TimeUnit unit) {
+        if (time < 0) {
+            throw new IllegalArgumentException("time: " + time + " (expected >= 0)");
+        }
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
+        long nanos = unit.toNanos(time);
+        if (nanos > XnioEventLoop.MAX_SPIN_BEFORE_PARK_NANOS) {
+            throw new IllegalArgumentException("time: " + nanos + "ns (expected <= "
+                    + XnioEventLoop.MAX_SPIN_BEFORE_PARK_NANOS + "ns)");
+        }
+        for (XnioEventLoop loop: loops) {
+            loop.spinBeforePark(nanos);
+        }
+        for (XnioEventLoop loop: foreignLoops.values()) {
+            loop.spinBeforePark(nanos);
+        }
+    }
+
+    /**
+     * Returns the time the {@link XnioIoThread}s spin before they go back to {@code select()}.
+     *
+     * @see #setSpinBeforePark(long, TimeUnit)
+     */
+    public long getSpinBeforePark(TimeUnit unit) {
+        return unit.convert(loops.length == 0 ? 0 : loops[0].spinBeforePark(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Sets how tasks which are scheduled at a fixed rate catch up once they missed deadlines. It applies to the tasks
+     * which are scheduled afterwards.
+     */
+    public void setFixedRateCatchUp(FixedRateCatchUp fixedRateCatchUp) {
+        if (fixedRateCatchUp == null) {
+            throw new NullPointerException("fixedRateCatchUp");
+        }
+        for (XnioEventLoop loop: loops) {
+            loop.fixedRateCatchUp(fixedRateCatchUp);
+        }
+        for (XnioEventLoop loop: foreignLoops.values()) {
+            loop.fixedRateCatchUp(fixedRateCatchUp);
+        }
+    }
+
+    /**
+     * Returns how tasks which are scheduled at a fixed rate catch up once they missed deadlines.
+     *
+     * @see #setFixedRateCatchUp(FixedRateCatchUp)
+     */
+    public FixedRateCatchUp getFixedRateCatchUp() {
+        return loops.length == 0 ? FixedRateCatchUp.DEFAULT : loops[0].fixedRateCatchUp();
+    }
+
+    /**
+     * Returns the {@link XnioWorker} whose {@link XnioIoThread}s are used by this group.
+     */
+    XnioWorker worker() {
+        return worker;
     }
 
     @Override
     public EventLoop next() {
-        return new XnioEventLoop(this, worker.getIoThread());
+        return (EventLoop) chooser.next();
+    }
+
+    /**
+     * Returns the {@link XnioEventLoop} of the given {@link XnioIoThread}. A thread of another {@link XnioWorker}
+     * gets its own {@link XnioEventLoop} too, which is drained together with the others once the group shuts down.
+     */
+    XnioEventLoop loop(XnioIoThread thread) {
+        XnioEventLoop loop = loopsByThread.get(thread);
+        if (loop != null) {
+            return loop;
+        }
+        loop = foreignLoops.get(thread);
+        if (loop == null) {
+            XnioEventLoop newLoop = new XnioEventLoop(this, thread);
+            newLoop.spinBeforePark(getSpinBeforePark(TimeUnit.NANOSECONDS));
+            newLoop.fixedRateCatchUp(getFixedRateCatchUp());
+            loop = foreignLoops.putIfAbsent(thread, newLoop);
+            if (loop == null) {
+                loop = newLoop;
+            }
+        }
+        return loop;
     }
 
     @Override
@@ -98,36 +266,101 @@ public final class XnioEventLoopGroup extends AbstractEventExecutorGroup impleme
     public ChannelFuture register(Channel channel, ChannelPromise promise) {
         if (channel instanceof IoThreadPowered) {
             IoThreadPowered ch = (IoThreadPowered) channel;
-            XnioEventLoop loop = new XnioEventLoop(this, ch.ioThread());
+            if (channel.parent() != null && ch.ioThread().getWorker() != worker
+                    && foreignChildWarned.compareAndSet(false, true)) {
+                logger.warn("A channel accepted by another XnioWorker was registered with this group, so it is not "
+                        + "driven by the threads of this group. Set XnioChannelOption.CHILD_GROUP to the child group "
+                        + "of the ServerBootstrap.");
+            }
+            XnioEventLoop loop = loop(ch.ioThread());
             channel.unsafe().register(loop, promise);
             return promise;
         }
+        if (chooser instanceof XnioEventLoopChooserFactory.BalancingChooser) {
+            // the slot is taken right away, so a burst of registrations does not go to the same loop
+            XnioEventLoop loop = ((XnioEventLoopChooserFactory.BalancingChooser) chooser).reserve();
+            return loop.registerReserved(channel, promise);
+        }
         return next().register(channel, promise);
     }
 
     @Override
     public boolean isShuttingDown() {
-        return worker.isTerminated();
+        return shuttingDown.get() || worker.isShutdown();
     }
 
+    /**
+     * Drains all {@link EventLoop}s of this group and shuts down the {@link XnioWorker} afterwards. Server channels
+     * are closed right away. All other channels are closed once they flushed their pending writes and did not
+     * transfer any bytes for the quiet period, but no later than the timeout.
+     */
     @Override
     public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
-        shutdown();
-        if (isShutdown()) {
-            return ImmediateEventExecutor.INSTANCE.newSucceededFuture(null);
-        } else {
-            return ImmediateEventExecutor.INSTANCE.newFailedFuture(new TimeoutException());
+        checkShutdownArguments(quietPeriod, timeout, unit);
+        if (shuttingDown.compareAndSet(false, true)) {
+            long quietPeriodNanos = unit.toNanos(quietPeriod);
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            List<XnioEventLoop> drained = new ArrayList<XnioEventLoop>(Arrays.asList(loops));
+            drained.addAll(foreignLoops.values());
+            final AtomicInteger draining = new AtomicInteger(drained.size());
+            FutureListener<Void> listener = new FutureListener<Void>() {
+                @Override
+                public void operationComplete(Future<Void> future) {
+                    if (draining.decrementAndGet() == 0) {
+                        worker.shutdown();
+                        watchTermination();
+                    }
+                }
+            };
+            for (XnioEventLoop loop: drained) {
+                loop.drain(quietPeriodNanos, deadline).addListener(listener);
+            }
         }
+        return terminationFuture;
     }
 
     @Override
     public Future<?> terminationFuture() {
-        throw new UnsupportedOperationException();
+        if (worker.isShutdown()) {
+            // the worker may have been shut down by somebody else
+            watchTermination();
+        }
+        return terminationFuture;
+    }
+
+    private void watchTermination() {
+        if (!terminationWatched.compareAndSet(false, true)) {
+            return;
+        }
+        // XnioWorker has no way to be notified about its termination, so check it periodically
+        GlobalEventExecutor.INSTANCE.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (worker.isTerminated()) {
+                    terminationFuture.trySuccess(null);
+                } else {
+                    GlobalEventExecutor.INSTANCE.schedule(this, TERMINATION_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    static void checkShutdownArguments(long quietPeriod, long timeout, TimeUnit unit) {
+        if (quietPeriod < 0) {
+            throw new IllegalArgumentException("quietPeriod: " + quietPeriod + " (expected >= 0)");
+        }
+        if (timeout < quietPeriod) {
+            throw new IllegalArgumentException(
+                    "timeout: " + timeout + " (expected >= quietPeriod (" + quietPeriod + "))");
+        }
+        if (unit == null) {
+            throw new NullPointerException("unit");
+        }
     }
 
     @Override
     public Iterator<EventExecutor> iterator() {
-        throw new UnsupportedOperationException();
+        return readonlyLoops.iterator();
     }
 
     @Override
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import org.xnio.XnioIoThread;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Coalesces the flushes which are rescheduled by the {@link AbstractXnioSocketChannel}s of a {@link XnioIoThread}
+ * after their write spin budget was used up. A channel is never queued twice and all queued channels are flushed by
+ * a single task, so the task queue of the {@link XnioIoThread} only sees one task per pass no matter how many
+ * channels are waiting for a flush.
+ *
+ * Must only be used from the owning {@link XnioIoThread}.
+ */
+final class XnioFlushScheduler implements Runnable {
+    private static final ThreadLocal<XnioFlushScheduler> SCHEDULERS = new ThreadLocal<XnioFlushScheduler>() {
+        @Override
+        protected XnioFlushScheduler initialValue() {
+            XnioIoThread thread = XnioIoThread.currentThread();
+            if (thread == null) {
+                return null;
+            }
+            return new XnioFlushScheduler(thread);
+        }
+    };
+
+    private final XnioIoThread thread;
+    private final ArrayDeque<AbstractXnioSocketChannel> pending = new ArrayDeque<AbstractXnioSocketChannel>();
+    private boolean scheduled;
+
+    private XnioFlushScheduler(XnioIoThread thread) {
+        this.thread = thread;
+    }
+
+    /**
+     * Returns the {@link XnioFlushScheduler} of the current {@link XnioIoThread} or {@code null} if the current
+     * {@link Thread} is not a {@link XnioIoThread}.
+     */
+    static XnioFlushScheduler current() {
+        return SCHEDULERS.get();
+    }
+
+    /**
+     * Schedule a flush of the given channel, unless a flush of it is already pending.
+     */
+    void schedule(AbstractXnioSocketChannel channel) {
+        assert Thread.currentThread() == thread;
+        if (channel.flushScheduled) {
+            return;
+        }
+        channel.flushScheduled = true;
+        pending.addLast(channel);
+        if (!scheduled) {
+            execute();
+        }
+    }
+
+    private void execute() {
+        scheduled = true;
+        try {
+            thread.execute(this);
+        } catch (RejectedExecutionException e) {
+            scheduled = false;
+            // the XnioIoThread is shutting down, so the pending writes would never be flushed
+            for (;;) {
+                AbstractXnioSocketChannel channel = pending.pollFirst();
+                if (channel == null) {
+                    return;
+                }
+                channel.flushScheduled = false;
+                channel.unsafe().close(channel.unsafe().voidPromise());
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        scheduled = false;
+        // only flush the channels which were queued before this pass, channels which are queued again while
+        // flushing are picked up by the next pass so other tasks can run in the meantime
+        int count = pending.size();
+        try {
+            while (count-- > 0) {
+                AbstractXnioSocketChannel channel = pending.pollFirst();
+                channel.flushScheduled = false;
+                channel.flush();
+            }
+        } finally {
+            if (!scheduled && !pending.isEmpty()) {
+                execute();
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import io.netty.util.concurrent.AbstractEventExecutor;
+import io.netty.util.concurrent.AbstractEventExecutorGroup;
+import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.OrderedEventExecutor;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link io.netty.util.concurrent.EventExecutorGroup} for handlers which call blocking APIs, like JDBC. Add the
+ * handlers with {@link io.netty.channel.ChannelPipeline#addLast(io.netty.util.concurrent.EventExecutorGroup,
+ * io.netty.channel.ChannelHandler...)} so they do not stall the {@link org.xnio.XnioIoThread}.
+ *
+ * Every {@link #next()} returns a new {@link EventExecutor} which runs its tasks one after the other. The
+ * {@link io.netty.channel.ChannelPipeline} calls {@link #next()} once per channel and keeps the executor, unless
+ * {@link io.netty.channel.ChannelOption#SINGLE_EVENTEXECUTOR_PER_GROUP} is disabled, so each channel gets its own
+ * executor and the order of the events of a channel is kept. The tasks run on virtual threads
+ * if the JDK supports them, otherwise on a cached pool of daemon threads. Everything a handler passes on to the
+ * {@link io.netty.channel.ChannelPipeline} goes back to the {@link io.netty.channel.EventLoop} of the channel.
+ *
+ * The executors do not support scheduling, use the {@link io.netty.channel.EventLoop} of the channel for it.
+ */
+public final class XnioOffloadExecutorGroup extends AbstractEventExecutorGroup {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(XnioOffloadExecutorGroup.class);
+    // the number of tasks of an executor which run on the same thread before the thread is given back
+    private static final int MAX_TASKS_PER_RUN = 256;
+    private static final long TERMINATION_CHECK_MILLIS = 10;
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR;
+
+    static {
+        Method method;
+        try {
+            method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            // JDK < 21
+            method = null;
+        } catch (SecurityException e) {
+            method = null;
+        }
+        NEW_VIRTUAL_THREAD_EXECUTOR = method;
+    }
+
+    private final Executor executor;
+    // only set if the executor was created by this group
+    private final ExecutorService ownedExecutor;
+    private final AtomicBoolean shuttingDown = new AtomicBoolean();
+    private final Promise<Void> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
+
+    /**
+     * Create a new group which runs the tasks on virtual threads, or on daemon threads if the JDK does not support
+     * virtual threads.
+     */
+    public XnioOffloadExecutorGroup() {
+        this(newExecutorService());
+    }
+
+    /**
+     * Create a new group which runs the tasks with the given {@link Executor}. The {@link Executor} is not shut down
+     * with the group.
+     */
+    public XnioOffloadExecutorGroup(Executor executor) {
+        this(executor, null);
+    }
+
+    private XnioOffloadExecutorGroup(ExecutorService executor) {
+        this(executor, executor);
+    }
+
+    private XnioOffloadExecutorGroup(Executor executor, ExecutorService ownedExecutor) {
+        if (executor == null) {
+            throw new NullPointerException("executor");
+        }
+        this.executor = executor;
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /**
+     * Returns {@code true} if the tasks run on virtual threads.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    private static ExecutorService newExecutorService() {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (Exception e) {
+                logger.debug("Unable to create a virtual thread executor, using daemon threads", e);
+            }
+        }
+        return Executors.newCachedThreadPool(new DefaultThreadFactory(XnioOffloadExecutorGroup.class, true));
+    }
+
+    /**
+     * Returns a new {@link EventExecutor} which runs its tasks in order. Every call creates another executor, the
+     * executors are neither pooled nor tracked by the group. Only tasks which are submitted to the same executor
+     * keep their order, so keep the returned executor instead of calling this method per task.
+     */
+    @Override
+    public EventExecutor next() {
+        return new SerialExecutor();
+    }
+
+    /**
+     * Returns an empty {@link Iterator}, as the executors which were returned by {@link #next()} are not tracked.
+     * They are all shut down together with the group.
+     */
+    @Override
+    public Iterator<EventExecutor> iterator() {
+        return Collections.<EventExecutor>emptyList().iterator();
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return shuttingDown.get();
+    }
+
+    @Override
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        XnioEventLoopGroup.checkShutdownArguments(quietPeriod, timeout, unit);
+        shutdown();
+        return terminationFuture;
+    }
+
+    @Override
+    public Future<?> terminationFuture() {
+        return terminationFuture;
+    }
+
+    @Override
+    public void shutdown() {
+        if (!shuttingDown.compareAndSet(false, true)) {
+            return;
+        }
+        if (ownedExecutor == null) {
+            terminationFuture.trySuccess(null);
+            return;
+        }
+        ownedExecutor.shutdown();
+        // the ExecutorService has no way to be notified about its termination, so check it periodically
+        GlobalEventExecutor.INSTANCE.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (ownedExecutor.isTerminated()) {
+                    terminationFuture.trySuccess(null);
+                } else {
+                    GlobalEventExecutor.INSTANCE.schedule(this, TERMINATION_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shuttingDown.get();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminationFuture.isDone();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminationFuture.await(timeout, unit);
+    }
+
+    /**
+     * Runs its tasks one after the other on threads of the {@link Executor} of the group. Only one thread is used at
+     * a time and it is given back once the queue is empty, so an idle executor does not hold a thread.
+     */
+    private final class SerialExecutor extends AbstractEventExecutor implements OrderedEventExecutor, Runnable {
+        private final Queue<Runnable> tasks = PlatformDependent.newMpscQueue(16, 1 << 30);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile Thread thread;
+
+        SerialExecutor() {
+            super(XnioOffloadExecutorGroup.this);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (command == null) {
+                throw new NullPointerException("command");
+            }
+            if (shuttingDown.get()) {
+                throw new RejectedExecutionException("shutting down");
+            }
+            tasks.offer(command);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // nothing runs the queued tasks, so they must not stay queued. The queue is only drained while
+                    // scheduled is set, so there is never more than one consumer
+                    dropTasks();
+                    scheduled.set(false);
+                    if (!tasks.isEmpty()) {
+                        // queued meanwhile by threads which saw scheduled set
+                        try {
+                            schedule();
+                        } catch (RejectedExecutionException ignore) {
+                            // dropped as well
+                        }
+                    }
+                    throw e;
+                }
+            }
+        }
+
+        private void dropTasks() {
+            while (tasks.poll() != null) {
+                // drop
+            }
+        }
+
+        @Override
+        public void run() {
+            thread = Thread.currentThread();
+            boolean pending = true;
+            try {
+                for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+                    Runnable task = tasks.poll();
+                    if (task == null) {
+                        pending = false;
+                        break;
+                    }
+                    safeExecute(task);
+                }
+            } finally {
+                thread = null;
+                scheduled.set(false);
+            }
+            if (pending || !tasks.isEmpty()) {
+                try {
+                    schedule();
+                } catch (RejectedExecutionException e) {
+                    logger.warn("Tasks of a XnioOffloadExecutorGroup were dropped because it was shut down.", e);
+                }
+            }
+        }
+
+        @Override
+        public boolean inEventLoop(Thread thread) {
+            return thread == this.thread;
+        }
+
+        @Override
+        public boolean isShuttingDown() {
+            return XnioOffloadExecutorGroup.this.isShuttingDown();
+        }
+
+        @Override
+        public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+            return XnioOffloadExecutorGroup.this.shutdownGracefully(quietPeriod, timeout, unit);
+        }
+
+        @Override
+        public Future<?> terminationFuture() {
+            return XnioOffloadExecutorGroup.this.terminationFuture();
+        }
+
+        @Override
+        public void shutdown() {
+            XnioOffloadExecutorGroup.this.shutdown();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return XnioOffloadExecutorGroup.this.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return XnioOffloadExecutorGroup.this.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return XnioOffloadExecutorGroup.this.awaitTermination(timeout, unit);
+        }
+    }
+}
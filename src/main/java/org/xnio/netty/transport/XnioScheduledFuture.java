@@ -0,0 +1,436 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.PlatformDependent;
+import org.xnio.XnioExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * {@link ScheduledFuture} of a task which was scheduled on a {@link XnioEventLoop}. The outcome is kept in a single
+ * field, a {@link DefaultPromise} is only created once somebody adds a listener or waits for the task. So a timeout
+ * which is cancelled before it fires costs nothing more than the entry in the {@link XnioTimerWheel}.
+ */
+final class XnioScheduledFuture<V> implements ScheduledFuture<V>, Runnable {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<XnioScheduledFuture, Object> RESULT_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(XnioScheduledFuture.class, Object.class, "result");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<XnioScheduledFuture, DefaultPromise> PROMISE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(XnioScheduledFuture.class, DefaultPromise.class, "promise");
+    // the task is running and can not be cancelled anymore
+    private static final Object UNCANCELLABLE = new Object();
+    private static final Object SUCCESS = new Object();
+    private static final Object CANCELLED = new Object();
+
+    private final XnioEventLoop loop;
+    private final Callable<V> callable;
+    private final Runnable runnable;
+    // 0 for a task which runs once, > 0 for a fixed rate and < 0 for a fixed delay, in nanoseconds
+    private final long period;
+    private final FixedRateCatchUp catchUp;
+    // the System.nanoTime() at which the task runs next
+    private volatile long deadline;
+    private volatile XnioExecutor.Key key;
+    private volatile Object result;
+    private volatile DefaultPromise<V> promise;
+    // guarded by this
+    private List<ListenerAdapter> listeners;
+
+    XnioScheduledFuture(XnioEventLoop loop, Callable<V> callable, long delay, TimeUnit unit) {
+        this(loop, callable, null, delay, unit, 0, null);
+    }
+
+    XnioScheduledFuture(XnioEventLoop loop, Runnable runnable, long delay, TimeUnit unit) {
+        this(loop, null, runnable, delay, unit, 0, null);
+    }
+
+    XnioScheduledFuture(XnioEventLoop loop, Runnable runnable, long initialDelay, long period, TimeUnit unit,
+                        FixedRateCatchUp catchUp) {
+        this(loop, null, runnable, initialDelay, unit, unit.toNanos(period), catchUp);
+    }
+
+    XnioScheduledFuture(XnioEventLoop loop, Runnable runnable, long initialDelay, long delay, TimeUnit unit) {
+        this(loop, null, runnable, initialDelay, unit, -unit.toNanos(delay), null);
+    }
+
+    private XnioScheduledFuture(XnioEventLoop loop, Callable<V> callable, Runnable runnable, long delay,
+                                TimeUnit unit, long period, FixedRateCatchUp catchUp) {
+        this.loop = loop;
+        this.callable = callable;
+        this.runnable = runnable;
+        this.period = period;
+        this.catchUp = catchUp;
+        deadline = System.nanoTime() + Math.max(0, unit.toNanos(delay));
+    }
+
+    /**
+     * Adds the task to the {@link XnioTimerWheel} of the {@link XnioEventLoop} for its next run.
+     */
+    XnioScheduledFuture<V> schedule() {
+        XnioExecutor.Key key = loop.timerWheel().add(this, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        this.key = key;
+        if (result == CANCELLED) {
+            // cancelled before the key was known
+            key.remove();
+        }
+        return this;
+    }
+
+    @Override
+    public void run() {
+        if (period == 0) {
+            if (!RESULT_UPDATER.compareAndSet(this, null, UNCANCELLABLE)) {
+                return;
+            }
+            Object result;
+            try {
+                if (callable != null) {
+                    V value = callable.call();
+                    result = value == null ? SUCCESS : value;
+                } else {
+                    runnable.run();
+                    result = SUCCESS;
+                }
+            } catch (Throwable cause) {
+                result = new CauseHolder(cause);
+            }
+            this.result = result;
+            notifyPromise();
+            return;
+        }
+        if (result != null) {
+            return;
+        }
+        try {
+            runnable.run();
+        } catch (Throwable cause) {
+            if (RESULT_UPDATER.compareAndSet(this, null, new CauseHolder(cause))) {
+                notifyPromise();
+            }
+            return;
+        }
+        if (result != null) {
+            // cancelled while running
+            return;
+        }
+        long now = System.nanoTime();
+        // fixed rate deadlines are anchored to the first deadline, so the time the task takes does not add up
+        deadline = period > 0 ? catchUp.nextDeadline(deadline, period, now) : now - period;
+        schedule();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!RESULT_UPDATER.compareAndSet(this, null, CANCELLED)) {
+            return false;
+        }
+        XnioExecutor.Key key = this.key;
+        if (key != null) {
+            key.remove();
+        }
+        notifyPromise();
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return result == CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        Object result = this.result;
+        return result != null && result != UNCANCELLABLE;
+    }
+
+    @Override
+    public boolean isSuccess() {
+        Object result = this.result;
+        return result != null && result != UNCANCELLABLE && result != CANCELLED && !(result instanceof CauseHolder);
+    }
+
+    @Override
+    public boolean isCancellable() {
+        return result == null;
+    }
+
+    @Override
+    public Throwable cause() {
+        Object result = this.result;
+        if (result == CANCELLED) {
+            return new CancellationException();
+        }
+        return result instanceof CauseHolder ? ((CauseHolder) result).cause : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V getNow() {
+        Object result = this.result;
+        if (result == null || result == UNCANCELLABLE || result == SUCCESS || result == CANCELLED
+                || result instanceof CauseHolder) {
+            return null;
+        }
+        return (V) result;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed o) {
+        if (o == this) {
+            return 0;
+        }
+        long d;
+        if (o instanceof XnioScheduledFuture) {
+            d = deadline - ((XnioScheduledFuture<?>) o).deadline;
+        } else {
+            d = getDelay(TimeUnit.NANOSECONDS) - o.getDelay(TimeUnit.NANOSECONDS);
+        }
+        return d < 0 ? -1 : d > 0 ? 1 : 0;
+    }
+
+    @Override
+    public Future<V> addListener(GenericFutureListener<? extends Future<? super V>> listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        ListenerAdapter adapter = new ListenerAdapter(listener);
+        synchronized (this) {
+            if (listeners == null) {
+                listeners = new ArrayList<ListenerAdapter>(2);
+            }
+            listeners.add(adapter);
+        }
+        promise().addListener(adapter);
+        return this;
+    }
+
+    @Override
+    public Future<V> addListeners(GenericFutureListener<? extends Future<? super V>>... listeners) {
+        if (listeners == null) {
+            throw new NullPointerException("listeners");
+        }
+        for (GenericFutureListener<? extends Future<? super V>> listener: listeners) {
+            if (listener == null) {
+                break;
+            }
+            addListener(listener);
+        }
+        return this;
+    }
+
+    @Override
+    public Future<V> removeListener(GenericFutureListener<? extends Future<? super V>> listener) {
+        if (listener == null) {
+            throw new NullPointerException("listener");
+        }
+        ListenerAdapter adapter = null;
+        synchronized (this) {
+            if (listeners != null) {
+                for (int i = 0; i < listeners.size(); i++) {
+                    if (listeners.get(i).listener == listener) {
+                        adapter = listeners.remove(i);
+                        break;
+                    }
+                }
+            }
+        }
+        if (adapter != null) {
+            promise.removeListener(adapter);
+        }
+        return this;
+    }
+
+    @Override
+    public Future<V> removeListeners(GenericFutureListener<? extends Future<? super V>>... listeners) {
+        if (listeners == null) {
+            throw new NullPointerException("listeners");
+        }
+        for (GenericFutureListener<? extends Future<? super V>> listener: listeners) {
+            if (listener == null) {
+                break;
+            }
+            removeListener(listener);
+        }
+        return this;
+    }
+
+    @Override
+    public Future<V> sync() throws InterruptedException {
+        await();
+        rethrowIfFailed();
+        return this;
+    }
+
+    @Override
+    public Future<V> syncUninterruptibly() {
+        awaitUninterruptibly();
+        rethrowIfFailed();
+        return this;
+    }
+
+    @Override
+    public Future<V> await() throws InterruptedException {
+        if (!isDone()) {
+            promise().await();
+        }
+        return this;
+    }
+
+    @Override
+    public Future<V> awaitUninterruptibly() {
+        if (!isDone()) {
+            promise().awaitUninterruptibly();
+        }
+        return this;
+    }
+
+    @Override
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return isDone() || promise().await(timeout, unit);
+    }
+
+    @Override
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        return isDone() || promise().await(timeoutMillis);
+    }
+
+    @Override
+    public boolean awaitUninterruptibly(long timeout, TimeUnit unit) {
+        return isDone() || promise().awaitUninterruptibly(timeout, unit);
+    }
+
+    @Override
+    public boolean awaitUninterruptibly(long timeoutMillis) {
+        return isDone() || promise().awaitUninterruptibly(timeoutMillis);
+    }
+
+    @Override
+    public V get() throws InterruptedException, ExecutionException {
+        await();
+        return report();
+    }
+
+    @Override
+    public V get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return report();
+    }
+
+    /**
+     * Returns {@code true} if a {@link DefaultPromise} was created for this future.
+     */
+    boolean hasPromise() {
+        return promise != null;
+    }
+
+    private V report() throws ExecutionException {
+        Object result = this.result;
+        if (result == CANCELLED) {
+            throw new CancellationException();
+        }
+        if (result instanceof CauseHolder) {
+            throw new ExecutionException(((CauseHolder) result).cause);
+        }
+        return getNow();
+    }
+
+    private void rethrowIfFailed() {
+        Throwable cause = cause();
+        if (cause != null) {
+            PlatformDependent.throwException(cause);
+        }
+    }
+
+    private DefaultPromise<V> promise() {
+        DefaultPromise<V> promise = this.promise;
+        if (promise == null) {
+            promise = new DefaultPromise<V>(loop);
+            if (!PROMISE_UPDATER.compareAndSet(this, null, promise)) {
+                return this.promise;
+            }
+            if (isDone()) {
+                // completed while the promise was created
+                complete(promise);
+            }
+        }
+        return promise;
+    }
+
+    private void notifyPromise() {
+        DefaultPromise<V> promise = this.promise;
+        if (promise != null) {
+            complete(promise);
+        }
+    }
+
+    private void complete(DefaultPromise<V> promise) {
+        Object result = this.result;
+        if (result == CANCELLED) {
+            promise.cancel(false);
+        } else if (result instanceof CauseHolder) {
+            promise.tryFailure(((CauseHolder) result).cause);
+        } else {
+            promise.trySuccess(getNow());
+        }
+    }
+
+    private static final class CauseHolder {
+        final Throwable cause;
+
+        CauseHolder(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+
+    /**
+     * Notifies a listener with this future instead of the {@link DefaultPromise} behind it.
+     */
+    private final class ListenerAdapter implements GenericFutureListener<Future<V>> {
+        final GenericFutureListener<? extends Future<? super V>> listener;
+
+        ListenerAdapter(GenericFutureListener<? extends Future<? super V>> listener) {
+            this.listener = listener;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @Override
+        public void operationComplete(Future<V> future) throws Exception {
+            ((GenericFutureListener) listener).operationComplete(XnioScheduledFuture.this);
+        }
+    }
+}
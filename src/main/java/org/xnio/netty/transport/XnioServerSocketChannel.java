@@ -39,21 +39,41 @@ public final class XnioServerSocketChannel extends AbstractXnioServerSocketChann
 
     @Override
     protected void doBind(SocketAddress localAddress) throws Exception {
-        XnioWorker worker = ((XnioEventLoop) eventLoop()).ioThread().getWorker();
+        XnioWorker worker = acceptingWorker();
         // use the same thread count as the XnioWorker
         OptionMap map = options.set(Options.WORKER_IO_THREADS, worker.getIoThreadCount()).getMap();
-        XnioEventLoop eventLoop = (XnioEventLoop) eventLoop();
+        if (config().isLocalAccept()) {
+            localAcceptor(ServerBootstrapAcceptors.find(pipeline()));
+        }
         synchronized (this) {
-            channel = eventLoop.ioThread().getWorker().createStreamConnectionServer(localAddress, new AcceptListener(), map);
+            channel = worker.createStreamConnectionServer(localAddress, new AcceptListener(), map);
             // start accepting
             channel.resumeAccepts();
         }
     }
 
+    /**
+     * Returns the {@link XnioWorker} which accepts the connections. An accepted connection stays bound to an
+     * {@link XnioIoThread} of this worker, so if a child {@link XnioEventLoopGroup} was configured via
+     * {@link XnioChannelOption#CHILD_GROUP} the connections are accepted by its worker. This way they can be
+     * registered with the child group without moving them to another worker.
+     */
+    private XnioWorker acceptingWorker() {
+        XnioEventLoopGroup childGroup = config().getChildGroup();
+        if (childGroup != null) {
+            return childGroup.worker();
+        }
+        return ((XnioEventLoop) eventLoop()).ioThread().getWorker();
+    }
+
     @Override
     protected <T> T getOption0(Option<T> option) throws IOException {
         if (channel != null) {
-            return channel.getOption(option);
+            T value = channel.getOption(option);
+            if (value != null) {
+                return value;
+            }
+            // options like the backlog are only used to create the channel, so XNIO does not report them
         }
         return options.getMap().get(option);
     }
@@ -23,6 +23,10 @@ import io.netty.channel.socket.ServerSocketChannelConfig;
 
 /**
  * {@link ServerSocketChannelConfig} which expose configuration settings which are specific to the XNIO transport.
+ * <p>
+ * There is no option for {@code SO_REUSEPORT}: XNIO opens and binds the listening socket itself, so it can not be set
+ * before the socket is bound. XNIO already spreads the accepted connections over all of its
+ * {@link org.xnio.XnioIoThread}s, see {@link XnioChannelOption#LOCAL_ACCEPT} to also initialize them there.
  *
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
@@ -48,6 +52,16 @@ public interface XnioServerSocketChannelConfig extends ServerSocketChannelConfig
      */
     int getConnectionLowWater();
 
+    /**
+     * @see {@link XnioChannelOption#CONNECTION_REJECT_HANDLER}
+     */
+    XnioServerSocketChannelConfig setConnectionRejectHandler(XnioConnectionRejectHandler rejectHandler);
+
+    /**
+     * @see {@link XnioChannelOption#CONNECTION_REJECT_HANDLER}
+     */
+    XnioConnectionRejectHandler getConnectionRejectHandler();
+
     /**
      * @see {@link XnioChannelOption#BALANCING_TOKENS}
      */
@@ -68,6 +82,36 @@ public interface XnioServerSocketChannelConfig extends ServerSocketChannelConfig
      */
     int getBalancingConnections();
 
+    /**
+     * @see {@link XnioChannelOption#ADAPTIVE_BALANCING}
+     */
+    XnioServerSocketChannelConfig setAdaptiveBalancing(boolean adaptiveBalancing);
+
+    /**
+     * @see {@link XnioChannelOption#ADAPTIVE_BALANCING}
+     */
+    boolean isAdaptiveBalancing();
+
+    /**
+     * @see {@link XnioChannelOption#CHILD_GROUP}
+     */
+    XnioServerSocketChannelConfig setChildGroup(XnioEventLoopGroup childGroup);
+
+    /**
+     * @see {@link XnioChannelOption#CHILD_GROUP}
+     */
+    XnioEventLoopGroup getChildGroup();
+
+    /**
+     * @see {@link XnioChannelOption#LOCAL_ACCEPT}
+     */
+    XnioServerSocketChannelConfig setLocalAccept(boolean localAccept);
+
+    /**
+     * @see {@link XnioChannelOption#LOCAL_ACCEPT}
+     */
+    boolean isLocalAccept();
+
     @Override
     XnioServerSocketChannelConfig setConnectTimeoutMillis(int connectTimeoutMillis);
 
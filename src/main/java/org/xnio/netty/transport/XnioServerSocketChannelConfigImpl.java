@@ -18,6 +18,7 @@ package org.xnio.netty.transport;
 
 import java.util.Map;
 
+import org.xnio.Option;
 import org.xnio.Options;
 
 import io.netty.buffer.ByteBufAllocator;
@@ -32,7 +33,20 @@ import io.netty.channel.WriteBufferWaterMark;
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
 final class XnioServerSocketChannelConfigImpl extends DefaultChannelConfig implements XnioServerSocketChannelConfig {
+    // the values XNIO and java.net.ServerSocket use for options which were not set
+    private static final int DEFAULT_BACKLOG = 50;
+    private static final boolean DEFAULT_REUSE_ADDRESS = true;
+    private static final int DEFAULT_BALANCING_TOKENS = -1;
+    private static final int DEFAULT_BALANCING_CONNECTIONS = 16;
     private final AbstractXnioServerSocketChannel channel;
+    private volatile XnioEventLoopGroup childGroup;
+    private volatile boolean localAccept;
+    private volatile boolean adaptiveBalancing;
+    // the admission of the connections is up to the server channel, these are not passed to XNIO
+    private volatile int connectionHighWater = Integer.MAX_VALUE;
+    // 0 if it follows the high water mark
+    private volatile int connectionLowWater;
+    private volatile XnioConnectionRejectHandler rejectHandler;
 
     XnioServerSocketChannelConfigImpl(AbstractXnioServerSocketChannel channel) {
         super(channel);
@@ -41,15 +55,31 @@ final class XnioServerSocketChannelConfigImpl extends DefaultChannelConfig imple
 
     @Override
     public Map<ChannelOption<?>, Object> getOptions() {
-        return getOptions(super.getOptions(), XnioChannelOption.BALANCING_CONNECTIONS,
+        return getOptions(super.getOptions(), ChannelOption.SO_BACKLOG, ChannelOption.SO_REUSEADDR,
+                ChannelOption.SO_RCVBUF,
+                XnioChannelOption.BALANCING_CONNECTIONS,
                 XnioChannelOption.BALANCING_TOKENS,
                 XnioChannelOption.CONNECTION_HIGH_WATER,
-                XnioChannelOption.CONNECTION_LOW_WATER);
+                XnioChannelOption.CONNECTION_LOW_WATER,
+                XnioChannelOption.CONNECTION_REJECT_HANDLER,
+                XnioChannelOption.CHILD_GROUP,
+                XnioChannelOption.LOCAL_ACCEPT,
+                XnioChannelOption.ADAPTIVE_BALANCING);
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> T getOption(ChannelOption<T> option) {
+        if (option == ChannelOption.SO_BACKLOG) {
+            return (T) Integer.valueOf(getBacklog());
+        }
+        if (option == ChannelOption.SO_REUSEADDR) {
+            return (T) Boolean.valueOf(isReuseAddress());
+        }
+        if (option == ChannelOption.SO_RCVBUF) {
+            // null until the socket is opened, as the default is up to the operating system
+            return (T) channel.getOption(Options.RECEIVE_BUFFER);
+        }
         if (option == XnioChannelOption.BALANCING_CONNECTIONS) {
             return (T) Integer.valueOf(getBalancingConnections());
         }
@@ -62,6 +92,18 @@ final class XnioServerSocketChannelConfigImpl extends DefaultChannelConfig imple
         if (option == XnioChannelOption.CONNECTION_LOW_WATER) {
             return (T) Integer.valueOf(getConnectionLowWater());
         }
+        if (option == XnioChannelOption.CONNECTION_REJECT_HANDLER) {
+            return (T) getConnectionRejectHandler();
+        }
+        if (option == XnioChannelOption.CHILD_GROUP) {
+            return (T) getChildGroup();
+        }
+        if (option == XnioChannelOption.LOCAL_ACCEPT) {
+            return (T) Boolean.valueOf(isLocalAccept());
+        }
+        if (option == XnioChannelOption.ADAPTIVE_BALANCING) {
+            return (T) Boolean.valueOf(isAdaptiveBalancing());
+        }
         return super.getOption(option);
     }
 
@@ -69,7 +111,13 @@ final class XnioServerSocketChannelConfigImpl extends DefaultChannelConfig imple
     public <T> boolean setOption(ChannelOption<T> option, T value) {
         validate(option, value);
 
-        if (option == XnioChannelOption.BALANCING_CONNECTIONS) {
+        if (option == ChannelOption.SO_BACKLOG) {
+            setBacklog((Integer) value);
+        } else if (option == ChannelOption.SO_REUSEADDR) {
+            setReuseAddress((Boolean) value);
+        } else if (option == ChannelOption.SO_RCVBUF) {
+            setReceiveBufferSize((Integer) value);
+        } else if (option == XnioChannelOption.BALANCING_CONNECTIONS) {
             setBalancingConnections((Integer) value);
         } else if (option == XnioChannelOption.BALANCING_TOKENS) {
             setBalancingTokens((Integer) value);
@@ -77,6 +125,14 @@ final class XnioServerSocketChannelConfigImpl extends DefaultChannelConfig imple
             setConnectionHighWater((Integer) value);
         } else if (option == XnioChannelOption.CONNECTION_LOW_WATER) {
             setConnectionLowWater((Integer) value);
+        } else if (option == XnioChannelOption.CONNECTION_REJECT_HANDLER) {
+            setConnectionRejectHandler((XnioConnectionRejectHandler) value);
+        } else if (option == XnioChannelOption.CHILD_GROUP) {
+            setChildGroup((XnioEventLoopGroup) value);
+        } else if (option == XnioChannelOption.LOCAL_ACCEPT) {
+            setLocalAccept((Boolean) value);
+        } else if (option == XnioChannelOption.ADAPTIVE_BALANCING) {
+            setAdaptiveBalancing((Boolean) value);
         } else {
             return super.setOption(option, value);
         }
@@ -86,18 +142,21 @@ final class XnioServerSocketChannelConfigImpl extends DefaultChannelConfig imple
 
     @Override
     public int getBacklog() {
-        return channel.getOption(Options.BACKLOG);
+        return getOption(Options.BACKLOG, DEFAULT_BACKLOG);
     }
 
     @Override
     public XnioServerSocketChannelConfig setBacklog(int backlog) {
+        if (backlog < 0) {
+            throw new IllegalArgumentException("backlog: " + backlog + " (expected: >= 0)");
+        }
         channel.setOption(Options.BACKLOG, backlog);
         return this;
     }
 
     @Override
     public boolean isReuseAddress() {
-        return channel.getOption(Options.REUSE_ADDRESSES);
+        return getOption(Options.REUSE_ADDRESSES, DEFAULT_REUSE_ADDRESS);
     }
 
     @Override
@@ -108,7 +167,8 @@ final class XnioServerSocketChannelConfigImpl extends DefaultChannelConfig imple
 
     @Override
     public int getReceiveBufferSize() {
-        return channel.getOption(Options.RECEIVE_BUFFER);
+        // unknown until the socket is opened
+        return getOption(Options.RECEIVE_BUFFER, -1);
     }
 
     @Override
@@ -189,16 +249,37 @@ final class XnioServerSocketChannelConfigImpl extends DefaultChannelConfig imple
 
     @Override
     public XnioServerSocketChannelConfig setConnectionHighWater(int connectionHighWater) {
-        channel.setOption(Options.CONNECTION_HIGH_WATER, connectionHighWater);
+        if (connectionHighWater <= 0) {
+            throw new IllegalArgumentException(
+                    "connectionHighWater: " + connectionHighWater + " (expected: > 0)");
+        }
+        this.connectionHighWater = connectionHighWater;
+        channel.admissionChanged();
         return this;
     }
 
     @Override
     public XnioServerSocketChannelConfig setConnectionLowWater(int connectionLowWater) {
-        channel.setOption(Options.CONNECTION_LOW_WATER, connectionLowWater);
+        if (connectionLowWater <= 0) {
+            throw new IllegalArgumentException(
+                    "connectionLowWater: " + connectionLowWater + " (expected: > 0)");
+        }
+        this.connectionLowWater = connectionLowWater;
+        channel.admissionChanged();
         return this;
     }
 
+    @Override
+    public XnioServerSocketChannelConfig setConnectionRejectHandler(XnioConnectionRejectHandler rejectHandler) {
+        this.rejectHandler = rejectHandler;
+        return this;
+    }
+
+    @Override
+    public XnioConnectionRejectHandler getConnectionRejectHandler() {
+        return rejectHandler;
+    }
+
     @Override
     public XnioServerSocketChannelConfig setBalancingTokens(int balancingTokens) {
         channel.setOption(Options.BALANCING_TOKENS, balancingTokens);
@@ -211,23 +292,65 @@ final class XnioServerSocketChannelConfigImpl extends DefaultChannelConfig imple
         return this;
     }
 
+    @Override
+    public XnioServerSocketChannelConfig setChildGroup(XnioEventLoopGroup childGroup) {
+        this.childGroup = childGroup;
+        return this;
+    }
+
+    @Override
+    public XnioEventLoopGroup getChildGroup() {
+        return childGroup;
+    }
+
+    @Override
+    public XnioServerSocketChannelConfig setLocalAccept(boolean localAccept) {
+        this.localAccept = localAccept;
+        return this;
+    }
+
+    @Override
+    public boolean isLocalAccept() {
+        return localAccept;
+    }
+
+    @Override
+    public XnioServerSocketChannelConfig setAdaptiveBalancing(boolean adaptiveBalancing) {
+        this.adaptiveBalancing = adaptiveBalancing;
+        return this;
+    }
+
+    @Override
+    public boolean isAdaptiveBalancing() {
+        return adaptiveBalancing;
+    }
+
     @Override
     public int getConnectionHighWater() {
-        return channel.getOption(Options.CONNECTION_HIGH_WATER);
+        return connectionHighWater;
     }
 
     @Override
     public int getConnectionLowWater() {
-        return channel.getOption(Options.CONNECTION_LOW_WATER);
+        int connectionLowWater = this.connectionLowWater;
+        return connectionLowWater == 0 ? connectionHighWater : connectionLowWater;
     }
 
     @Override
     public int getBalancingTokens() {
-        return channel.getOption(Options.BALANCING_TOKENS);
+        return getOption(Options.BALANCING_TOKENS, DEFAULT_BALANCING_TOKENS);
     }
 
     @Override
     public int getBalancingConnections() {
-        return channel.getOption(Options.BALANCING_CONNECTIONS);
+        return getOption(Options.BALANCING_CONNECTIONS, DEFAULT_BALANCING_CONNECTIONS);
+    }
+
+    /**
+     * Returns the value of the given {@link Option}, or the given default if XNIO does not report one.
+     */
+    private <T> T getOption(Option<T> option, T defaultValue) {
+        T value = channel.getOption(option);
+        return value == null ? defaultValue : value;
     }
 }
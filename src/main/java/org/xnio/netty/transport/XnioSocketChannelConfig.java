@@ -16,9 +16,12 @@
  */
 package org.xnio.netty.transport;
 
+import java.util.Map;
+
 import org.xnio.Options;
 
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultChannelConfig;
 import io.netty.channel.MessageSizeEstimator;
 import io.netty.channel.RecvByteBufAllocator;
@@ -32,12 +35,80 @@ import io.netty.channel.socket.SocketChannelConfig;
 final class XnioSocketChannelConfig extends DefaultChannelConfig implements SocketChannelConfig {
 
     private final AbstractXnioSocketChannel channel;
+    private volatile int scatteringReadBuffers = 1;
+    private volatile boolean batchReads;
 
     XnioSocketChannelConfig(AbstractXnioSocketChannel channel) {
         super(channel);
         this.channel = channel;
     }
 
+    @Override
+    public Map<ChannelOption<?>, Object> getOptions() {
+        return getOptions(super.getOptions(), XnioChannelOption.SCATTERING_READ_BUFFERS,
+                XnioChannelOption.BATCH_READS);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getOption(ChannelOption<T> option) {
+        if (option == XnioChannelOption.SCATTERING_READ_BUFFERS) {
+            return (T) Integer.valueOf(getScatteringReadBuffers());
+        }
+        if (option == XnioChannelOption.BATCH_READS) {
+            return (T) Boolean.valueOf(isBatchReads());
+        }
+        return super.getOption(option);
+    }
+
+    @Override
+    public <T> boolean setOption(ChannelOption<T> option, T value) {
+        validate(option, value);
+
+        if (option == XnioChannelOption.SCATTERING_READ_BUFFERS) {
+            setScatteringReadBuffers((Integer) value);
+        } else if (option == XnioChannelOption.BATCH_READS) {
+            setBatchReads((Boolean) value);
+        } else {
+            return super.setOption(option, value);
+        }
+
+        return true;
+    }
+
+    /**
+     * @see {@link XnioChannelOption#SCATTERING_READ_BUFFERS}
+     */
+    public int getScatteringReadBuffers() {
+        return scatteringReadBuffers;
+    }
+
+    /**
+     * @see {@link XnioChannelOption#SCATTERING_READ_BUFFERS}
+     */
+    public SocketChannelConfig setScatteringReadBuffers(int scatteringReadBuffers) {
+        if (scatteringReadBuffers < 1) {
+            throw new IllegalArgumentException("scatteringReadBuffers: " + scatteringReadBuffers + " (expected: >= 1)");
+        }
+        this.scatteringReadBuffers = scatteringReadBuffers;
+        return this;
+    }
+
+    /**
+     * @see {@link XnioChannelOption#BATCH_READS}
+     */
+    public boolean isBatchReads() {
+        return batchReads;
+    }
+
+    /**
+     * @see {@link XnioChannelOption#BATCH_READS}
+     */
+    public SocketChannelConfig setBatchReads(boolean batchReads) {
+        this.batchReads = batchReads;
+        return this;
+    }
+
     @Override
     public boolean isTcpNoDelay() {
         return channel.getOption(Options.TCP_NODELAY);
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+import org.xnio.XnioExecutor;
+import org.xnio.XnioIoThread;
+
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Hashed timing wheel which runs the scheduled tasks of a {@link XnioEventLoop}. Adding and cancelling a timeout
+ * is O(1) and, no matter how many timeouts are pending, only a single tick is registered with
+ * {@link XnioIoThread#executeAfter(Runnable, long, TimeUnit)}. The tick is only armed while timeouts are pending and
+ * skips the empty buckets of the wheel.
+ *
+ * Timeouts fire on the first tick after their deadline, so they are delayed by up to one tick duration, which can be
+ * configured with the {@code org.xnio.netty.eventloop.timerTickMillis} system property.
+ */
+final class XnioTimerWheel implements Runnable {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(XnioTimerWheel.class);
+
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            Math.max(1, SystemPropertyUtil.getLong("org.xnio.netty.eventloop.timerTickMillis", 10)));
+    static final int WHEEL_SIZE = normalizeWheelSize(
+            SystemPropertyUtil.getInt("org.xnio.netty.eventloop.timerWheelSize", 512));
+
+    private final XnioIoThread thread;
+    private final long tickNanos;
+    private final Timeout[] heads;
+    private final Timeout[] tails;
+    private final int mask;
+    private final long startTime = System.nanoTime();
+    private final Queue<Timeout> pending = PlatformDependent.newMpscQueue();
+    private final Queue<Timeout> cancelled = PlatformDependent.newMpscQueue();
+    // true while the wheel was woken up to pick up pending timeouts
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable tickTask = new Runnable() {
+        @Override
+        public void run() {
+            tickKey = null;
+            process();
+        }
+    };
+
+    // only accessed from the XnioIoThread
+    private long tick;
+    private int size;
+    private XnioExecutor.Key tickKey;
+    private long armedTick;
+    // true while expired timeouts run, timeouts which are added or cancelled meanwhile are queued
+    private boolean expiring;
+
+    XnioTimerWheel(XnioIoThread thread) {
+        this(thread, TICK_NANOS, WHEEL_SIZE);
+    }
+
+    XnioTimerWheel(XnioIoThread thread, long tickNanos, int wheelSize) {
+        this.thread = thread;
+        this.tickNanos = tickNanos;
+        wheelSize = normalizeWheelSize(wheelSize);
+        heads = new Timeout[wheelSize];
+        tails = new Timeout[wheelSize];
+        mask = wheelSize - 1;
+    }
+
+    /**
+     * Schedule the given task to run after the given delay. May be called from any thread.
+     */
+    Timeout add(Runnable task, long delay, TimeUnit unit) {
+        long delayNanos = Math.max(0, unit.toNanos(delay));
+        long deadline = System.nanoTime() - startTime + delayNanos;
+        if (deadline < 0) {
+            // guard against overflow
+            deadline = Long.MAX_VALUE;
+        }
+        Timeout timeout = new Timeout(this, task, deadline);
+        if (thread != Thread.currentThread()) {
+            pending.offer(timeout);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    thread.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    throw e;
+                }
+            }
+        } else if (expiring) {
+            // picked up once all expired timeouts ran
+            pending.offer(timeout);
+        } else {
+            if (size == 0) {
+                catchUp(System.nanoTime());
+            }
+            // only the bucket of the new timeout can be earlier than the armed tick, so there is no need to scan
+            arm(insert(timeout), System.nanoTime());
+        }
+        return timeout;
+    }
+
+    /**
+     * Returns the number of timeouts which are in the wheel. Must be called from the {@link XnioIoThread}.
+     */
+    int size() {
+        return size;
+    }
+
+    @Override
+    public void run() {
+        // woken up by another thread, timeouts which are added from now on need another wakeup
+        scheduled.set(false);
+        process();
+    }
+
+    private void process() {
+        long now = System.nanoTime();
+        processCancelled();
+        if (size == 0) {
+            catchUp(now);
+        }
+        transferPending();
+        expiring = true;
+        try {
+            expire(now);
+        } finally {
+            expiring = false;
+        }
+        processCancelled();
+        transferPending();
+        arm(now);
+    }
+
+    /**
+     * Make sure the tick is armed for the first bucket which holds timeouts, or disarm it if the wheel is empty.
+     */
+    private void arm(long now) {
+        if (size == 0) {
+            XnioExecutor.Key tickKey = this.tickKey;
+            if (tickKey != null) {
+                tickKey.remove();
+                this.tickKey = null;
+            }
+            return;
+        }
+        arm(nextTick(), now);
+    }
+
+    /**
+     * Make sure the tick is armed for the given tick or an earlier one.
+     */
+    private void arm(long nextTick, long now) {
+        XnioExecutor.Key tickKey = this.tickKey;
+        if (tickKey != null) {
+            if (armedTick <= nextTick || !tickKey.remove()) {
+                // armed early enough, or the tick is about to run and will arm again
+                return;
+            }
+            this.tickKey = null;
+        }
+        long deadline = startTime + (nextTick + 1) * tickNanos;
+        try {
+            this.tickKey = thread.executeAfter(tickTask, Math.max(0, deadline - now), TimeUnit.NANOSECONDS);
+            armedTick = nextTick;
+        } catch (RejectedExecutionException e) {
+            // the thread is shutting down, the pending timeouts will never fire
+        }
+    }
+
+    private long nextTick() {
+        for (int i = 0; i < heads.length; i++) {
+            if (heads[(int) ((tick + i) & mask)] != null) {
+                return tick + i;
+            }
+        }
+        return tick + heads.length - 1;
+    }
+
+    private void catchUp(long now) {
+        // nothing is in the wheel so the ticks which passed meanwhile can just be skipped
+        tick = Math.max(tick, (now - startTime) / tickNanos);
+    }
+
+    /**
+     * Insert the given timeout and return the next tick its bucket is processed at.
+     */
+    private long insert(Timeout timeout) {
+        long calculated = timeout.deadline / tickNanos;
+        timeout.remainingRounds = (calculated - tick) / heads.length;
+        int index = (int) (Math.max(calculated, tick) & mask);
+        timeout.bucket = index;
+        Timeout tail = tails[index];
+        if (tail == null) {
+            heads[index] = tails[index] = timeout;
+        } else {
+            tail.next = timeout;
+            timeout.prev = tail;
+            tails[index] = timeout;
+        }
+        size++;
+        return tick + ((index - tick) & mask);
+    }
+
+    private void unlink(Timeout timeout) {
+        int index = timeout.bucket;
+        if (index < 0) {
+            // not in the wheel yet or already removed
+            return;
+        }
+        Timeout prev = timeout.prev;
+        Timeout next = timeout.next;
+        if (prev == null) {
+            heads[index] = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            tails[index] = prev;
+        } else {
+            next.prev = prev;
+        }
+        timeout.prev = timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+
+    private void transferPending() {
+        for (;;) {
+            Timeout timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state == Timeout.ST_INIT) {
+                insert(timeout);
+            }
+        }
+    }
+
+    private void processCancelled() {
+        for (;;) {
+            Timeout timeout = cancelled.poll();
+            if (timeout == null) {
+                return;
+            }
+            unlink(timeout);
+        }
+    }
+
+    private void expire(long now) {
+        while (now - startTime >= (tick + 1) * tickNanos) {
+            int index = (int) (tick & mask);
+            Timeout timeout = heads[index];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.state == Timeout.ST_CANCELLED) {
+                    unlink(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    unlink(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            tick++;
+            if (size == 0) {
+                return;
+            }
+        }
+    }
+
+    void cancelled(Timeout timeout) {
+        if (thread == Thread.currentThread() && !expiring) {
+            unlink(timeout);
+        } else {
+            cancelled.offer(timeout);
+        }
+    }
+
+    private static int normalizeWheelSize(int wheelSize) {
+        if (wheelSize <= 0) {
+            throw new IllegalArgumentException("wheelSize must be > 0: " + wheelSize);
+        }
+        int normalized = 1;
+        while (normalized < wheelSize) {
+            normalized <<= 1;
+        }
+        return normalized;
+    }
+
+    /**
+     * A task which was added to a {@link XnioTimerWheel}. {@link #remove()} cancels the task if it did not run yet.
+     */
+    static final class Timeout implements XnioExecutor.Key {
+        static final int ST_INIT = 0;
+        static final int ST_CANCELLED = 1;
+        static final int ST_EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final XnioTimerWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state;
+
+        // only accessed from the XnioIoThread
+        private long remainingRounds;
+        private int bucket = -1;
+        private Timeout next;
+        private Timeout prev;
+
+        Timeout(XnioTimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean remove() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            wheel.cancelled(this);
+            return true;
+        }
+
+        void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.warn("An exception was thrown by " + task.getClass().getSimpleName() + '.', t);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Counters of the write loop of a {@link io.netty.channel.socket.SocketChannel} of the XNIO transport, which show
+ * how the adaptive write spin budget of the channel behaves.
+ */
+public final class XnioWriteSpinMetric {
+    private static final AtomicLongFieldUpdater<XnioWriteSpinMetric> COMPLETED_WRITES_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(XnioWriteSpinMetric.class, "completedWrites");
+    private static final AtomicLongFieldUpdater<XnioWriteSpinMetric> SOCKET_FULL_WRITES_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(XnioWriteSpinMetric.class, "socketFullWrites");
+    private static final AtomicLongFieldUpdater<XnioWriteSpinMetric> SPIN_EXHAUSTED_WRITES_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(XnioWriteSpinMetric.class, "spinExhaustedWrites");
+    private static final AtomicLongFieldUpdater<XnioWriteSpinMetric> PARTIAL_WRITES_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(XnioWriteSpinMetric.class, "partialWrites");
+
+    private volatile long completedWrites;
+    private volatile long socketFullWrites;
+    private volatile long spinExhaustedWrites;
+    private volatile long partialWrites;
+    private volatile int writeSpinBudget;
+
+    XnioWriteSpinMetric() {
+    }
+
+    /**
+     * Returns the number of write loops which wrote the whole message.
+     */
+    public long completedWrites() {
+        return completedWrites;
+    }
+
+    /**
+     * Returns the number of write loops which were stopped because the socket did not accept any more bytes, so the
+     * channel waited for the socket to become writable again.
+     */
+    public long socketFullWrites() {
+        return socketFullWrites;
+    }
+
+    /**
+     * Returns the number of write loops which used up the whole spin budget, so the flush was rescheduled on the
+     * event loop.
+     */
+    public long spinExhaustedWrites() {
+        return spinExhaustedWrites;
+    }
+
+    /**
+     * Returns the number of single writes which wrote fewer bytes than requested.
+     */
+    public long partialWrites() {
+        return partialWrites;
+    }
+
+    /**
+     * Returns the current write spin budget of the channel.
+     */
+    public int writeSpinBudget() {
+        return writeSpinBudget;
+    }
+
+    void completed() {
+        COMPLETED_WRITES_UPDATER.incrementAndGet(this);
+    }
+
+    void socketFull() {
+        SOCKET_FULL_WRITES_UPDATER.incrementAndGet(this);
+    }
+
+    void spinExhausted() {
+        SPIN_EXHAUSTED_WRITES_UPDATER.incrementAndGet(this);
+    }
+
+    void partialWrite() {
+        PARTIAL_WRITES_UPDATER.incrementAndGet(this);
+    }
+
+    void writeSpinBudget(int writeSpinBudget) {
+        this.writeSpinBudget = writeSpinBudget;
+    }
+
+    @Override
+    public String toString() {
+        return "XnioWriteSpinMetric(completedWrites: " + completedWrites() + "; socketFullWrites: "
+                + socketFullWrites() + "; spinExhaustedWrites: " + spinExhaustedWrites() + "; partialWrites: "
+                + partialWrites() + "; writeSpinBudget: " + writeSpinBudget() + ')';
+    }
+}
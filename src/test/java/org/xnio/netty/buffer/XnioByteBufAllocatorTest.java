@@ -0,0 +1,367 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.buffer;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.Test;
+import org.xnio.ByteBufferPool;
+import org.xnio.OptionMap;
+import org.xnio.Options;
+import org.xnio.Xnio;
+import org.xnio.XnioIoThread;
+import org.xnio.XnioWorker;
+import org.xnio.netty.transport.XnioEventLoopGroup;
+import org.xnio.netty.transport.XnioServerSocketChannel;
+import org.xnio.netty.transport.XnioSocketChannel;
+
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that buffers allocated by {@link XnioByteBufAllocator} are given back to the {@link ByteBufferPool}.
+ */
+public class XnioByteBufAllocatorTest {
+
+    @Test
+    public void testReleaseReturnsSlabToPool() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator(ByteBufferPool.MEDIUM_DIRECT);
+        ByteBuf buf = allocator.directBuffer(128);
+        assertEquals(1, allocator.metric().pooledDirectBuffers());
+        assertEquals(ByteBufferPool.MEDIUM_SIZE, allocator.metric().usedDirectMemory());
+        assertTrue(buf.release());
+        assertEquals(0, allocator.metric().pooledDirectBuffers());
+        assertEquals(0, allocator.metric().usedDirectMemory());
+    }
+
+    @Test
+    public void testCapacityChangeReturnsOldSlabToPool() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator(ByteBufferPool.SMALL_DIRECT);
+        ByteBuf buf = allocator.directBuffer(16);
+        buf.writeLong(1).writeLong(2);
+        buf.capacity(ByteBufferPool.SMALL_SIZE * 4);
+        assertEquals(0, allocator.metric().pooledDirectBuffers());
+        assertEquals(1L, buf.readLong());
+        assertEquals(2L, buf.readLong());
+        assertTrue(buf.release());
+        assertEquals(0, allocator.metric().usedDirectMemory());
+    }
+
+    @Test
+    public void testBestFittingPool() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator();
+        ByteBuf small = allocator.directBuffer(ByteBufferPool.SMALL_SIZE);
+        ByteBuf medium = allocator.directBuffer(ByteBufferPool.SMALL_SIZE + 1);
+        ByteBuf large = allocator.directBuffer(ByteBufferPool.MEDIUM_SIZE + 1);
+        assertEquals(ByteBufferPool.SMALL_SIZE, small.capacity());
+        assertEquals(ByteBufferPool.MEDIUM_SIZE, medium.capacity());
+        assertEquals(ByteBufferPool.LARGE_SIZE, large.capacity());
+        assertEquals(3, allocator.metric().pooledDirectBuffers());
+        assertTrue(small.release());
+        assertTrue(medium.release());
+        assertTrue(large.release());
+        assertEquals(0, allocator.metric().pooledDirectBuffers());
+    }
+
+    @Test
+    public void testOversizedBufferComposedOfPooledBuffers() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator();
+        int capacity = ByteBufferPool.LARGE_SIZE * 2 + 16;
+        ByteBuf buf = allocator.directBuffer(capacity);
+        assertEquals(capacity, buf.capacity());
+        assertEquals(0, buf.writerIndex());
+        assertEquals(3, allocator.metric().pooledDirectBuffers());
+        assertEquals(ByteBufferPool.LARGE_SIZE * 2 + ByteBufferPool.SMALL_SIZE, allocator.metric().usedDirectMemory());
+
+        for (int i = 0; i < capacity / 4; i++) {
+            buf.writeInt(i);
+        }
+        for (int i = 0; i < capacity / 4; i++) {
+            assertEquals(i, buf.readInt());
+        }
+        assertTrue(buf.release());
+        assertEquals(0, allocator.metric().pooledDirectBuffers());
+        assertEquals(0, allocator.metric().usedDirectMemory());
+    }
+
+    @Test
+    public void testOversizedBufferKeepsMaxCapacity() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator();
+        int capacity = ByteBufferPool.LARGE_SIZE * 2 + 16;
+        ByteBuf buf = allocator.directBuffer(capacity, capacity + 16);
+        try {
+            assertEquals(capacity + 16, buf.maxCapacity());
+            buf.writerIndex(capacity);
+            buf.ensureWritable(16);
+            assertEquals(capacity + 16, buf.capacity());
+            assertThrows(IndexOutOfBoundsException.class, () -> buf.ensureWritable(17));
+        } finally {
+            assertTrue(buf.release());
+        }
+        assertEquals(0, allocator.metric().pooledDirectBuffers());
+    }
+
+    @Test
+    public void testGrowthJumpsToNextPoolSizeIfClose() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator();
+        // the default growth would pick 4096
+        assertEquals(ByteBufferPool.MEDIUM_SIZE, allocator.calculateNewCapacity(3000, Integer.MAX_VALUE));
+        assertEquals(6000, allocator.calculateNewCapacity(3000, 6000));
+        // the next pool is more than twice the default growth
+        assertEquals(128, allocator.calculateNewCapacity(ByteBufferPool.SMALL_SIZE + 1, Integer.MAX_VALUE));
+        assertEquals(ByteBufferPool.MEDIUM_SIZE * 2, allocator.calculateNewCapacity(ByteBufferPool.MEDIUM_SIZE + 1,
+                Integer.MAX_VALUE));
+
+        // cumulate a frame in small chunks like a decoder does, growing past a pool must not take the next pool
+        byte[] chunk = new byte[1000];
+        ByteBuf buf = allocator.directBuffer(16);
+        while (buf.writerIndex() + chunk.length <= ByteBufferPool.MEDIUM_SIZE * 2) {
+            buf.writeBytes(chunk);
+            assertTrue(buf.capacity() <= Math.max(ByteBufferPool.MEDIUM_SIZE, buf.writerIndex() * 4),
+                    "capacity " + buf.capacity() + " for " + buf.writerIndex() + " bytes");
+        }
+        assertEquals(ByteBufferPool.MEDIUM_SIZE * 2, buf.capacity());
+        assertEquals(0, allocator.metric().pooledDirectBuffers());
+        assertTrue(buf.release());
+        assertEquals(0, allocator.metric().usedDirectMemory());
+    }
+
+    @Test
+    public void testCompositeGrowthChainsPooledBuffers() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator();
+        CompositeByteBuf buf = (CompositeByteBuf) unwrapLeakAware(allocator.directBuffer(ByteBufferPool.LARGE_SIZE + 1));
+        assertEquals(2, buf.numComponents());
+        ByteBuf first = buf.component(0).unwrap();
+
+        int ints = ByteBufferPool.LARGE_SIZE;
+        for (int i = 0; i < ints; i++) {
+            buf.writeInt(i);
+        }
+        // the content was never copied, more buffers were added instead
+        assertSame(first, buf.component(0).unwrap());
+        assertEquals(buf.numComponents(), allocator.metric().pooledDirectBuffers());
+        for (int i = 0; i < ints; i++) {
+            assertEquals(i, buf.readInt());
+        }
+        assertTrue(buf.release());
+        assertEquals(0, allocator.metric().pooledDirectBuffers());
+    }
+
+    private static ByteBuf unwrapLeakAware(ByteBuf buf) {
+        ByteBuf unwrapped = buf.unwrap();
+        return unwrapped == null ? buf : unwrapped;
+    }
+
+    @Test
+    public void testHeapBufferBackedByPooledArray() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator();
+        ByteBuf buf = allocator.heapBuffer(ByteBufferPool.SMALL_SIZE + 1);
+        assertTrue(buf.hasArray());
+        assertEquals(ByteBufferPool.MEDIUM_SIZE, buf.capacity());
+        assertEquals(1, allocator.metric().pooledHeapBuffers());
+        assertEquals(ByteBufferPool.MEDIUM_SIZE, allocator.metric().usedHeapMemory());
+
+        buf.writeLong(1);
+        // the next pool is too big, so the buffer grows like an unpooled one
+        buf.capacity(ByteBufferPool.MEDIUM_SIZE + 1);
+        assertEquals(ByteBufferPool.MEDIUM_SIZE + 1, buf.capacity());
+        assertEquals(0, allocator.metric().pooledHeapBuffers());
+        assertEquals(1L, buf.readLong());
+
+        assertTrue(buf.release());
+        assertEquals(0, allocator.metric().pooledHeapBuffers());
+        assertEquals(0, allocator.metric().usedHeapMemory());
+    }
+
+    @Test
+    public void testHeapBufferGrowsIntoPoolIfClose() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator();
+        ByteBuf buf = allocator.heapBuffer(16);
+        assertEquals(ByteBufferPool.SMALL_SIZE, buf.capacity());
+        buf.capacity(ByteBufferPool.MEDIUM_SIZE / 2 + 1);
+        assertEquals(ByteBufferPool.MEDIUM_SIZE, buf.capacity());
+        assertEquals(1, allocator.metric().pooledHeapBuffers());
+        assertTrue(buf.release());
+        assertEquals(0, allocator.metric().pooledHeapBuffers());
+    }
+
+    @Test
+    public void testOversizedHeapBufferNotPooled() {
+        XnioByteBufAllocator allocator = new XnioByteBufAllocator(ByteBufferPool.SMALL_DIRECT);
+        ByteBuf buf = allocator.heapBuffer(ByteBufferPool.SMALL_SIZE + 1);
+        assertEquals(ByteBufferPool.SMALL_SIZE + 1, buf.capacity());
+        assertEquals(0, allocator.metric().pooledHeapBuffers());
+        assertEquals(ByteBufferPool.SMALL_SIZE + 1, allocator.metric().usedHeapMemory());
+        assertTrue(buf.release());
+        assertEquals(0, allocator.metric().usedHeapMemory());
+    }
+
+    @Test
+    public void testIoThreadCache() throws Exception {
+        XnioWorker worker = Xnio.getInstance().createWorker(OptionMap.create(Options.WORKER_IO_THREADS, 1));
+        try {
+            final XnioByteBufAllocator allocator = new XnioByteBufAllocator();
+            XnioIoThread thread = worker.getIoThread();
+            final ByteBuf buf = runOn(thread, new Callable<ByteBuf>() {
+                @Override
+                public ByteBuf call() {
+                    ByteBuf buf = allocator.directBuffer(ByteBufferPool.SMALL_SIZE);
+                    allocator.directBuffer(ByteBufferPool.SMALL_SIZE).release();
+                    return buf;
+                }
+            });
+            assertEquals(1, allocator.metric().pooledDirectBuffers());
+            assertEquals(1, allocator.metric().cachedDirectBuffers());
+
+            // released by a foreign thread, so it is queued and picked up by the owning thread even though it does
+            // not allocate anymore
+            assertTrue(buf.release());
+            assertEquals(0, allocator.metric().pooledDirectBuffers());
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (allocator.metric().cachedDirectBuffers() != 2 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(2, allocator.metric().cachedDirectBuffers());
+
+            runOn(thread, new Callable<Void>() {
+                @Override
+                public Void call() {
+                    ByteBuf buf = allocator.directBuffer(ByteBufferPool.SMALL_SIZE);
+                    assertEquals(1, allocator.metric().cachedDirectBuffers());
+                    buf.release();
+                    return null;
+                }
+            });
+            assertEquals(2, allocator.metric().cachedDirectBuffers());
+
+            // the cache is given back to the pool once the thread did not allocate for a while
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (allocator.metric().cachedDirectBuffers() != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, allocator.metric().cachedDirectBuffers());
+        } finally {
+            worker.shutdown();
+        }
+    }
+
+    @Test
+    public void testIoThreadCacheIsGivenBackAfterShutdown() throws Exception {
+        XnioWorker worker = Xnio.getInstance().createWorker(OptionMap.create(Options.WORKER_IO_THREADS, 1));
+        final XnioByteBufAllocator allocator = new XnioByteBufAllocator();
+        XnioIoThread thread = worker.getIoThread();
+        final ByteBuf buf = runOn(thread, new Callable<ByteBuf>() {
+            @Override
+            public ByteBuf call() {
+                ByteBuf buf = allocator.directBuffer(ByteBufferPool.SMALL_SIZE);
+                allocator.directBuffer(ByteBufferPool.SMALL_SIZE).release();
+                return buf;
+            }
+        });
+        assertEquals(1, allocator.metric().cachedDirectBuffers());
+        worker.shutdown();
+        assertTrue(worker.awaitTermination(10, TimeUnit.SECONDS));
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+
+        // the owning thread is gone, so the foreign release gives back the cached buffer as well
+        assertTrue(buf.release());
+        assertEquals(0, allocator.metric().pooledDirectBuffers());
+        assertEquals(0, allocator.metric().cachedDirectBuffers());
+    }
+
+    private static <T> T runOn(XnioIoThread thread, Callable<T> callable) throws Exception {
+        FutureTask<T> task = new FutureTask<T>(callable);
+        thread.execute(task);
+        return task.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testPooledBuffersReturnedAfterEcho() throws Throwable {
+        final XnioByteBufAllocator allocator = new XnioByteBufAllocator(ByteBufferPool.MEDIUM_DIRECT);
+        final byte[] data = new byte[1024 * 1024];
+        new Random().nextBytes(data);
+        final AtomicInteger received = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        XnioEventLoopGroup group = new XnioEventLoopGroup(2);
+        try {
+            Channel server = new ServerBootstrap().group(group).channel(XnioServerSocketChannel.class)
+                    .childOption(ChannelOption.ALLOCATOR, allocator)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                                @Override
+                                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                    ctx.writeAndFlush(msg);
+                                }
+                            });
+                        }
+                    }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+
+            Channel client = new Bootstrap().group(group).channel(XnioSocketChannel.class)
+                    .option(ChannelOption.ALLOCATOR, allocator)
+                    .handler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            int total = received.addAndGet(((ByteBuf) msg).readableBytes());
+                            ReferenceCountUtil.release(msg);
+                            if (total == data.length) {
+                                latch.countDown();
+                            }
+                        }
+                    }).connect(server.localAddress()).sync().channel();
+
+            for (int i = 0; i < data.length; i += 4096) {
+                client.write(Unpooled.wrappedBuffer(data, i, 4096));
+            }
+            client.flush();
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            client.close().sync();
+            server.close().sync();
+
+            // accepted children are closed asynchronously so give them some time to release their buffers
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (allocator.metric().pooledDirectBuffers() != 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, allocator.metric().pooledDirectBuffers(), allocator.metric().toString());
+            assertEquals(0, allocator.metric().usedDirectMemory(), allocator.metric().toString());
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+}
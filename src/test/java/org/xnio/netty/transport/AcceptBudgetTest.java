@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class AcceptBudgetTest {
+
+    @Test
+    public void testInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AcceptBudget(0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new AcceptBudget(16, 8));
+    }
+
+    @Test
+    public void testGrowsWhileUsedUp() {
+        AcceptBudget budget = new AcceptBudget(16, 128);
+        assertEquals(16, budget.budget(16));
+        budget.accepted(16);
+        assertEquals(32, budget.budget(16));
+        budget.accepted(32);
+        budget.accepted(64);
+        assertEquals(128, budget.budget(16));
+        // capped at the maximum
+        budget.accepted(128);
+        assertEquals(128, budget.budget(16));
+        assertEquals(128, budget.peak());
+        assertEquals(16 + 32 + 64 + 128, budget.accepted());
+    }
+
+    @Test
+    public void testShrinksWhenMostlyUnused() {
+        AcceptBudget budget = new AcceptBudget(16, 128);
+        budget.accepted(16);
+        budget.accepted(32);
+        assertEquals(64, budget.budget(16));
+        // more than a quarter used, the budget stays
+        budget.accepted(17);
+        assertEquals(64, budget.budget(16));
+        budget.accepted(1);
+        assertEquals(32, budget.budget(16));
+        budget.accepted(0);
+        budget.accepted(0);
+        budget.accepted(0);
+        // never less than the minimum
+        assertEquals(16, budget.budget(16));
+        assertEquals(64, budget.peak());
+    }
+
+    @Test
+    public void testMinimumFollowsConfiguration() {
+        AcceptBudget budget = new AcceptBudget(16, 128);
+        assertEquals(64, budget.budget(64));
+        budget.accepted(0);
+        assertEquals(64, budget.budget(64));
+        assertEquals(128, budget.budget(1024));
+        assertEquals(128, budget.budget(4));
+        budget.accepted(0);
+        assertEquals(64, budget.budget(4));
+    }
+
+    @Test
+    public void testBurstThenCalmPeriod() {
+        AcceptBudget budget = new AcceptBudget(4, 1024);
+        // a burst uses up every budget until the maximum is reached
+        for (int expected = 4; expected < 1024; expected <<= 1) {
+            assertEquals(expected, budget.budget(4));
+            budget.accepted(expected);
+        }
+        assertEquals(1024, budget.budget(4));
+        assertEquals(1024, budget.peak());
+        // single connections while calm shrink the budget back to the minimum
+        for (int i = 0; i < 8; i++) {
+            budget.accepted(1);
+        }
+        assertEquals(4, budget.budget(4));
+        assertEquals(1024, budget.peak());
+    }
+}
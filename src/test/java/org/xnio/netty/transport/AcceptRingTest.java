@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class AcceptRingTest {
+
+    @Test
+    public void testCapacityMustBePowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new AcceptRing<Object>(0));
+        assertThrows(IllegalArgumentException.class, () -> new AcceptRing<Object>(3));
+    }
+
+    @Test
+    public void testOfferAndPollInOrder() {
+        AcceptRing<Object> ring = new AcceptRing<Object>(4);
+        Object[] connections = new Object[4];
+        assertNull(ring.poll());
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = new Object();
+                assertTrue(ring.offer(connections[i]));
+            }
+            assertTrue(ring.isFull());
+            assertFalse(ring.offer(new Object()));
+            for (Object connection: connections) {
+                assertSame(connection, ring.poll());
+            }
+            assertNull(ring.poll());
+            assertFalse(ring.isFull());
+        }
+    }
+
+    @Test
+    public void testConcurrentProducerAndConsumer() throws Exception {
+        final int count = 100000;
+        final AcceptRing<Object> ring = new AcceptRing<Object>(64);
+        final Object[] connections = new Object[count];
+        for (int i = 0; i < count; i++) {
+            connections[i] = new Object();
+        }
+        Thread producer = new Thread(() -> {
+            for (Object connection: connections) {
+                while (!ring.offer(connection)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (int i = 0; i < count; i++) {
+            Object connection;
+            while ((connection = ring.poll()) == null) {
+                assertTrue(System.nanoTime() < deadline, i + " of " + count + " polled");
+                Thread.yield();
+            }
+            assertSame(connections[i], connection, "connection " + i);
+        }
+        producer.join();
+        assertNull(ring.poll());
+    }
+}
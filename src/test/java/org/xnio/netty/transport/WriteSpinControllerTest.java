@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class WriteSpinControllerTest {
+
+    @Test
+    public void testBudgetShrinksWhenSocketIsFull() {
+        ChannelConfig config = new DefaultChannelConfig(new EmbeddedChannel());
+        config.setWriteSpinCount(16);
+        WriteSpinController controller = new WriteSpinController(config);
+        assertEquals(16, controller.budget());
+        controller.socketFull();
+        assertEquals(8, controller.budget());
+        for (int i = 0; i < 10; i++) {
+            controller.socketFull();
+        }
+        assertEquals(1, controller.budget());
+        assertEquals(11, controller.metric().socketFullWrites());
+        assertEquals(1, controller.metric().writeSpinBudget());
+    }
+
+    @Test
+    public void testBudgetGrowsWhenSpinIsExhausted() {
+        ChannelConfig config = new DefaultChannelConfig(new EmbeddedChannel());
+        config.setWriteSpinCount(16);
+        WriteSpinController controller = new WriteSpinController(config);
+        assertEquals(16, controller.budget());
+        controller.socketFull();
+        controller.socketFull();
+        assertEquals(4, controller.budget());
+        controller.spinExhausted();
+        assertEquals(8, controller.budget());
+        for (int i = 0; i < 10; i++) {
+            controller.spinExhausted();
+        }
+        assertEquals(16 * WriteSpinController.MAX_BUDGET_FACTOR, controller.budget());
+        assertEquals(11, controller.metric().spinExhaustedWrites());
+    }
+
+    @Test
+    public void testShortWritesShrinkBudget() {
+        ChannelConfig config = new DefaultChannelConfig(new EmbeddedChannel());
+        config.setWriteSpinCount(16);
+        WriteSpinController controller = new WriteSpinController(config);
+        assertEquals(16, controller.budget());
+        // the socket accepted most of the offered bytes, so it keeps up
+        controller.written(100, 60);
+        controller.written(40, 30);
+        controller.spinExhausted();
+        assertEquals(32, controller.budget());
+        // the socket accepted less than half, so it fills up
+        controller.written(100, 60);
+        controller.written(40, 10);
+        controller.spinExhausted();
+        assertEquals(16, controller.budget());
+        // a short write only counts for its own write loop
+        controller.written(100, 10);
+        controller.completed();
+        controller.spinExhausted();
+        assertEquals(32, controller.budget());
+        assertEquals(5, controller.metric().partialWrites());
+    }
+
+    @Test
+    public void testBudgetResetsWhenConfigChanges() {
+        ChannelConfig config = new DefaultChannelConfig(new EmbeddedChannel());
+        config.setWriteSpinCount(16);
+        WriteSpinController controller = new WriteSpinController(config);
+        controller.budget();
+        controller.socketFull();
+        assertEquals(8, controller.budget());
+        config.setWriteSpinCount(4);
+        assertEquals(4, controller.budget());
+    }
+
+    @Test
+    public void testCounters() {
+        ChannelConfig config = new DefaultChannelConfig(new EmbeddedChannel());
+        WriteSpinController controller = new WriteSpinController(config);
+        controller.written(10, 10);
+        controller.written(10, 0);
+        controller.written(10, 5);
+        controller.completed();
+        assertEquals(1, controller.metric().partialWrites());
+        assertEquals(1, controller.metric().completedWrites());
+    }
+}
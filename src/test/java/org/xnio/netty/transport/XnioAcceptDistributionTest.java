@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+/**
+ * Loopback benchmark which measures the accept throughput of a single listening socket and how the accepted
+ * connections are spread over the {@link org.xnio.XnioIoThread}s, with and without
+ * {@link XnioChannelOption#LOCAL_ACCEPT}.
+ */
+public class XnioAcceptDistributionTest {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(XnioAcceptDistributionTest.class);
+    private static final int CONNECTIONS = 2000;
+    private static final int CONNECTORS = 4;
+    private static final int IO_THREADS = 4;
+
+    @Test
+    public void testSingleListener() throws Exception {
+        testDistribution(false);
+    }
+
+    @Test
+    public void testSingleListenerWithLocalAccept() throws Exception {
+        testDistribution(true);
+    }
+
+    private static void testDistribution(boolean localAccept) throws Exception {
+        XnioEventLoopGroup boss = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup workers = new XnioEventLoopGroup(IO_THREADS);
+        final AtomicIntegerArray perThread = new AtomicIntegerArray(IO_THREADS);
+        final CountDownLatch accepted = new CountDownLatch(CONNECTIONS);
+        try {
+            Channel server = new ServerBootstrap().group(boss, workers).channel(XnioServerSocketChannel.class)
+                    .option(XnioChannelOption.CHILD_GROUP, workers)
+                    // a full backlog drops SYNs, the client retries them a second later which dominates the timing
+                    .option(ChannelOption.SO_BACKLOG, CONNECTIONS)
+                    .option(XnioChannelOption.LOCAL_ACCEPT, localAccept)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            perThread.incrementAndGet(((XnioEventLoop) ch.eventLoop()).ioThread().getNumber());
+                            accepted.countDown();
+                            ch.close();
+                        }
+                    }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            final InetSocketAddress address = (InetSocketAddress) server.localAddress();
+            long start = System.nanoTime();
+            XnioTestsuiteUtils.connect(CONNECTORS, CONNECTIONS, id -> SocketChannel.open(address).close());
+            assertTrue(accepted.await(30, TimeUnit.SECONDS));
+            long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+            int[] counts = new int[IO_THREADS];
+            int total = 0;
+            for (int i = 0; i < IO_THREADS; i++) {
+                counts[i] = perThread.get(i);
+                total += counts[i];
+            }
+            logger.info("single listener{}: {} connections in {} ms ({} connections/s), per IO thread: {}",
+                    localAccept ? " with local accept" : "", CONNECTIONS, millis, CONNECTIONS * 1000L / millis,
+                    Arrays.toString(counts));
+            assertEquals(CONNECTIONS, total);
+            for (int count: counts) {
+                // XNIO picks a random IO thread for every accepted connection
+                assertTrue(count > 0, Arrays.toString(counts));
+            }
+            server.close().sync();
+        } finally {
+            workers.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+}
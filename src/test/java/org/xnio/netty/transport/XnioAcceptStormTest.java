@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.handler.codec.FixedLengthFrameDecoder;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Opens thousands of connections as fast as possible and checks that every one of them is delivered to the
+ * child handler exactly once.
+ */
+public class XnioAcceptStormTest {
+    private static final int CONNECTIONS = 4000;
+    private static final int CONNECTORS = 8;
+
+    @Test
+    public void testAcceptStormWithBossAndWorkerGroup() throws Exception {
+        XnioEventLoopGroup boss = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup workers = new XnioEventLoopGroup(4);
+        try {
+            testAcceptStorm(new ServerBootstrap().group(boss, workers).option(XnioChannelOption.CHILD_GROUP, workers));
+        } finally {
+            workers.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testAcceptStormWithSingleGroup() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(4);
+        try {
+            testAcceptStorm(new ServerBootstrap().group(group));
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testAcceptStormWithLocalAccept() throws Exception {
+        XnioEventLoopGroup boss = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup workers = new XnioEventLoopGroup(4);
+        try {
+            testAcceptStorm(new ServerBootstrap().group(boss, workers).option(XnioChannelOption.CHILD_GROUP, workers)
+                    .option(XnioChannelOption.LOCAL_ACCEPT, true));
+        } finally {
+            workers.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testAcceptsAreSuspendedWhileHandoffIsFull() throws Exception {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadCpuTimeSupported());
+        XnioEventLoopGroup boss = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup workers = new XnioEventLoopGroup(1);
+        final int connections = 1024 + 256;
+        final CountDownLatch accepted = new CountDownLatch(connections);
+        final CountDownLatch release = new CountDownLatch(1);
+        List<SocketChannel> clients = new ArrayList<SocketChannel>();
+        try {
+            AbstractXnioServerSocketChannel server = (AbstractXnioServerSocketChannel) new ServerBootstrap()
+                    .group(boss, workers).channel(XnioServerSocketChannel.class)
+                    .option(XnioChannelOption.CHILD_GROUP, workers)
+                    .option(ChannelOption.SO_BACKLOG, connections)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            accepted.countDown();
+                        }
+                    }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            // the boss EventLoop does not take any connections, so the accepting XnioIoThread fills the ring
+            boss.next().execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            for (int i = 0; i < connections; i++) {
+                clients.add(SocketChannel.open(server.localAddress()));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (server.xnioChannel().isAcceptResumed() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertFalse(server.xnioChannel().isAcceptResumed());
+
+            // the accepting XnioIoThread must not spin on the connections it can not hand over
+            long threadId = workers.loop(workers.worker().getIoThread(0)).ioThread().getId();
+            long cpuTime = threads.getThreadCpuTime(threadId);
+            Thread.sleep(500);
+            long spent = TimeUnit.NANOSECONDS.toMillis(threads.getThreadCpuTime(threadId) - cpuTime);
+            assertTrue(spent < 250, "accepting thread spent " + spent + " ms of CPU time");
+
+            release.countDown();
+            assertTrue(accepted.await(30, TimeUnit.SECONDS), accepted.getCount() + " connections not accepted");
+            deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (!server.xnioChannel().isAcceptResumed() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(server.xnioChannel().isAcceptResumed());
+            server.close().sync();
+        } finally {
+            release.countDown();
+            for (SocketChannel client: clients) {
+                client.close();
+            }
+            workers.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    private static void testAcceptStorm(ServerBootstrap bootstrap) throws Exception {
+        final ConcurrentMap<Integer, AtomicInteger> received = new ConcurrentHashMap<Integer, AtomicInteger>();
+        final AtomicInteger children = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(CONNECTIONS);
+        Channel server = bootstrap.channel(XnioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        children.incrementAndGet();
+                        ch.pipeline().addLast(new FixedLengthFrameDecoder(4), new ChannelInboundHandlerAdapter() {
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                int id = ((ByteBuf) msg).readInt();
+                                ReferenceCountUtil.release(msg);
+                                AtomicInteger count = received.putIfAbsent(id, new AtomicInteger(1));
+                                if (count != null) {
+                                    count.incrementAndGet();
+                                }
+                                done.countDown();
+                                ctx.close();
+                            }
+                        });
+                    }
+                }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+        try {
+            final InetSocketAddress address = (InetSocketAddress) server.localAddress();
+            XnioTestsuiteUtils.connect(CONNECTORS, CONNECTIONS, id -> {
+                try (SocketChannel channel = SocketChannel.open(address)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(4).putInt(0, id);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    // wait until the server closed the connection, so file descriptors do not pile up
+                    channel.read(ByteBuffer.allocate(1));
+                }
+            });
+            assertTrue(done.await(30, TimeUnit.SECONDS), received.size() + " of " + CONNECTIONS + " received");
+
+            assertEquals(CONNECTIONS, children.get());
+            assertEquals(CONNECTIONS, received.size());
+            for (int id = 0; id < CONNECTIONS; id++) {
+                assertEquals(1, received.get(id).get(), "connection " + id);
+            }
+        } finally {
+            server.close().sync();
+        }
+    }
+}
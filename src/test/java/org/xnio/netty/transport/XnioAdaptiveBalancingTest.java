@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+
+/**
+ * Stresses {@link XnioChannelOption#ADAPTIVE_BALANCING} with bursts of connections followed by calm periods and
+ * checks that every connection is accepted and closed.
+ */
+public class XnioAdaptiveBalancingTest {
+    private static final int BURSTS = 3;
+    private static final int CONNECTIONS_PER_BURST = 1500;
+    private static final int CONNECTORS = 8;
+    private static final int MAX_MESSAGES_PER_READ = 4;
+
+    @Test
+    public void testBurstsWithBossAndWorkerGroup() throws Exception {
+        XnioEventLoopGroup boss = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup workers = new XnioEventLoopGroup(2);
+        try {
+            testBursts(new ServerBootstrap().group(boss, workers).option(XnioChannelOption.CHILD_GROUP, workers));
+        } finally {
+            workers.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testBurstsWithLocalAccept() throws Exception {
+        XnioEventLoopGroup boss = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup workers = new XnioEventLoopGroup(2);
+        try {
+            testBursts(new ServerBootstrap().group(boss, workers).option(XnioChannelOption.CHILD_GROUP, workers)
+                    .option(XnioChannelOption.LOCAL_ACCEPT, true));
+        } finally {
+            workers.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    private static void testBursts(ServerBootstrap bootstrap) throws Exception {
+        final AtomicInteger children = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        Channel server = bootstrap.channel(XnioServerSocketChannel.class)
+                .option(ChannelOption.SO_BACKLOG, CONNECTIONS_PER_BURST)
+                .option(ChannelOption.MAX_MESSAGES_PER_READ, MAX_MESSAGES_PER_READ)
+                .option(XnioChannelOption.ADAPTIVE_BALANCING, true)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        children.incrementAndGet();
+                        ch.closeFuture().addListener(future -> closed.incrementAndGet());
+                        ch.close();
+                    }
+                }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+        try {
+            final InetSocketAddress address = (InetSocketAddress) server.localAddress();
+            int expected = 0;
+            for (int burst = 0; burst < BURSTS; burst++) {
+                XnioTestsuiteUtils.connect(CONNECTORS, CONNECTIONS_PER_BURST,
+                        id -> SocketChannel.open(address).close());
+                expected += CONNECTIONS_PER_BURST;
+                await(children, expected, "accepted");
+
+                // a calm period of single connections between the bursts
+                for (int i = 0; i < 200; i++) {
+                    SocketChannel.open(address).close();
+                    await(children, ++expected, "accepted");
+                }
+            }
+
+            // how the budgets adapt depends on the timing, see AcceptBudgetTest for the rules
+            long accepted = 0;
+            for (AcceptBudget budget: ((XnioServerSocketChannel) server).budgets()) {
+                if (budget != null) {
+                    accepted += budget.accepted();
+                }
+            }
+            assertEquals(expected, accepted);
+            assertEquals(expected, children.get());
+            await(closed, expected, "closed");
+        } finally {
+            server.close().sync();
+        }
+    }
+
+    private static void await(AtomicInteger count, int expected, String what) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (count.get() < expected) {
+            assertTrue(System.nanoTime() < deadline, count.get() + " of " + expected + " connections " + what);
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
+
+public class XnioBossWorkerGroupTest {
+
+    @Test
+    public void testChildrenAreRegisteredWithWorkerGroup() throws Exception {
+        final int clients = 16;
+        final int bytesPerClient = 1024 * 1024;
+        XnioEventLoopGroup boss = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup workers = new XnioEventLoopGroup(4);
+        XnioEventLoopGroup clientGroup = new XnioEventLoopGroup(2);
+        final List<Channel> children = new CopyOnWriteArrayList<Channel>();
+        List<Channel> clientChannels = new ArrayList<Channel>();
+        try {
+            Channel server = new ServerBootstrap().group(boss, workers).channel(XnioServerSocketChannel.class)
+                    .option(XnioChannelOption.CHILD_GROUP, workers)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            children.add(ch);
+                            ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                                @Override
+                                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                    // echo
+                                    ctx.writeAndFlush(msg);
+                                }
+                            });
+                        }
+                    }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            assertSame(boss, server.eventLoop().parent());
+
+            final AtomicLong echoed = new AtomicLong();
+            final CountDownLatch done = new CountDownLatch(clients);
+            for (int i = 0; i < clients; i++) {
+                clientChannels.add(new Bootstrap().group(clientGroup).channel(XnioSocketChannel.class)
+                        .handler(new ChannelInboundHandlerAdapter() {
+                            private long received;
+
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                received += ((ByteBuf) msg).readableBytes();
+                                echoed.addAndGet(((ByteBuf) msg).readableBytes());
+                                ReferenceCountUtil.release(msg);
+                                if (received == bytesPerClient) {
+                                    done.countDown();
+                                }
+                            }
+                        }).connect(server.localAddress()).sync().channel());
+            }
+            for (Channel channel: clientChannels) {
+                channel.writeAndFlush(Unpooled.wrappedBuffer(new byte[bytesPerClient]));
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS), children.size() + " children, " + echoed.get() + " echoed");
+            assertEquals((long) clients * bytesPerClient, echoed.get());
+
+            assertEquals(clients, children.size());
+            for (Channel child: children) {
+                EventLoop loop = child.eventLoop();
+                assertSame(workers, loop.parent());
+                assertSame(workers.worker(), ((XnioEventLoop) loop).ioThread().getWorker());
+                assertFalse(boss.worker() == ((XnioEventLoop) loop).ioThread().getWorker());
+            }
+            server.close().sync();
+        } finally {
+            for (Channel channel: clientChannels) {
+                channel.close().sync();
+            }
+            clientGroup.shutdownGracefully();
+            workers.shutdownGracefully();
+            boss.shutdownGracefully();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+
+public class XnioChildGroupTest {
+
+    @Test
+    public void testChildrenStayOnAcceptingWorkerWithoutChildGroup() throws Exception {
+        testChildGroup(false);
+    }
+
+    @Test
+    public void testChildrenAreAcceptedByChildGroup() throws Exception {
+        testChildGroup(true);
+    }
+
+    private static void testChildGroup(boolean childGroup) throws Exception {
+        XnioEventLoopGroup boss = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup workers = new XnioEventLoopGroup(1);
+        final AtomicReference<Channel> child = new AtomicReference<Channel>();
+        final CountDownLatch initialized = new CountDownLatch(1);
+        try {
+            ServerBootstrap bootstrap = new ServerBootstrap().group(boss, workers);
+            if (childGroup) {
+                bootstrap.option(XnioChannelOption.CHILD_GROUP, workers);
+            }
+            Channel server = bootstrap.channel(XnioServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            child.set(ch);
+                            initialized.countDown();
+                        }
+                    }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            SocketChannel.open((InetSocketAddress) server.localAddress()).close();
+            assertTrue(initialized.await(10, TimeUnit.SECONDS));
+
+            XnioEventLoop loop = (XnioEventLoop) child.get().eventLoop();
+            assertSame(workers, loop.parent());
+            // without the option the connection stays on the worker of the boss group, which logs a warning
+            assertSame(childGroup ? workers.worker() : boss.worker(), loop.ioThread().getWorker());
+            server.close().sync();
+        } finally {
+            workers.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+
+public class XnioConnectionAdmissionTest {
+    private static final byte[] BUSY = "busy".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testAcceptIsSuspendedAtHighWater() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(2);
+        List<Object> events = new CopyOnWriteArrayList<Object>();
+        List<Channel> children = new CopyOnWriteArrayList<Channel>();
+        List<Socket> clients = new ArrayList<Socket>();
+        try {
+            XnioServerSocketChannel server = bind(group, events, children, 4, 2, null);
+            XnioAdmissionMetric metric = server.admissionMetric();
+            for (int i = 0; i < 4; i++) {
+                clients.add(new Socket("127.0.0.1", server.localAddress().getPort()));
+            }
+            waitFor(() -> metric.connections() == 4 && events.size() == 1);
+            assertTrue(metric.isAcceptSuspended());
+            assertEquals(XnioAcceptEvent.SUSPENDED, events.get(0));
+
+            // waits in the backlog
+            clients.add(new Socket("127.0.0.1", server.localAddress().getPort()));
+            Thread.sleep(300);
+            assertEquals(4, metric.connections());
+            assertEquals(4, children.size());
+
+            // dropping to the low water mark admits the waiting connection
+            children.get(0).close().sync();
+            children.get(1).close().sync();
+            waitFor(() -> children.size() == 5 && events.size() == 2);
+            assertEquals(3, metric.connections());
+            assertFalse(metric.isAcceptSuspended());
+            assertEquals(Arrays.asList(XnioAcceptEvent.SUSPENDED, XnioAcceptEvent.RESUMED), events);
+            assertEquals(1, metric.acceptSuspensions());
+            assertEquals(0, metric.rejectedConnections());
+            server.close().sync();
+        } finally {
+            for (Socket client: clients) {
+                client.close();
+            }
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testConnectionsAreRejectedAtHighWater() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(2);
+        List<Object> events = new CopyOnWriteArrayList<Object>();
+        List<Channel> children = new CopyOnWriteArrayList<Channel>();
+        List<Socket> clients = new ArrayList<Socket>();
+        XnioConnectionRejectHandler rejectHandler = connection -> connection.getSinkChannel().write(ByteBuffer.wrap(BUSY));
+        try {
+            XnioServerSocketChannel server = bind(group, events, children, 2, 1, rejectHandler);
+            XnioAdmissionMetric metric = server.admissionMetric();
+            for (int i = 0; i < 2; i++) {
+                clients.add(new Socket("127.0.0.1", server.localAddress().getPort()));
+            }
+            waitFor(() -> metric.connections() == 2 && events.size() == 1);
+
+            // accepted, answered and closed right away
+            try (Socket rejected = new Socket("127.0.0.1", server.localAddress().getPort())) {
+                assertArrayEquals(BUSY, readFully(rejected.getInputStream()));
+            }
+            assertEquals(1, metric.rejectedConnections());
+            assertEquals(2, metric.connections());
+            assertEquals(2, children.size());
+
+            children.get(0).close().sync();
+            waitFor(() -> events.size() == 2);
+            clients.add(new Socket("127.0.0.1", server.localAddress().getPort()));
+            waitFor(() -> children.size() == 3 && events.size() == 3);
+            assertEquals(Arrays.asList(XnioAcceptEvent.SUSPENDED, XnioAcceptEvent.RESUMED, XnioAcceptEvent.SUSPENDED),
+                    events);
+            assertEquals(2, metric.acceptSuspensions());
+            assertEquals(1, metric.rejectedConnections());
+            server.close().sync();
+        } finally {
+            for (Socket client: clients) {
+                client.close();
+            }
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    private static XnioServerSocketChannel bind(XnioEventLoopGroup group, final List<Object> events,
+                                                final List<Channel> children, int highWater, int lowWater,
+                                                XnioConnectionRejectHandler rejectHandler) throws Exception {
+        return (XnioServerSocketChannel) new ServerBootstrap().group(group)
+                .channel(XnioServerSocketChannel.class)
+                .option(ChannelOption.SO_BACKLOG, 16)
+                .option(XnioChannelOption.CONNECTION_HIGH_WATER, highWater)
+                .option(XnioChannelOption.CONNECTION_LOW_WATER, lowWater)
+                .option(XnioChannelOption.CONNECTION_REJECT_HANDLER, rejectHandler)
+                .handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+                        events.add(evt);
+                    }
+                })
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        children.add(ch);
+                    }
+                })
+                .bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+    }
+
+    private static byte[] readFully(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[64];
+        int read;
+        while ((read = in.read(buf)) != -1) {
+            out.write(buf, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.util.ReferenceCountUtil;
+
+public class XnioEventLoopBatchTest {
+    private static XnioEventLoopGroup group;
+
+    @BeforeAll
+    public static void createGroup() throws Exception {
+        group = new XnioEventLoopGroup(1);
+    }
+
+    @AfterAll
+    public static void shutdownGroup() throws Exception {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    public void testSubmissionOrderIsKept() throws Exception {
+        BatchingEventExecutor loop = (BatchingEventExecutor) group.next();
+        final List<Integer> order = new ArrayList<Integer>();
+        int count = 3000;
+        final CountDownLatch latch = new CountDownLatch(count);
+        int i = 0;
+        while (i < count) {
+            switch (i % 3) {
+                case 0:
+                    loop.execute(new Append(order, i++, latch));
+                    break;
+                case 1:
+                    loop.lazyExecute(new Append(order, i++, latch));
+                    break;
+                default:
+                    List<Runnable> batch = new ArrayList<Runnable>();
+                    for (int j = 0; j < 10 && i < count; j++) {
+                        batch.add(new Append(order, i++, latch));
+                    }
+                    loop.executeAll(batch);
+                    break;
+            }
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        loop.submit(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < order.size(); i++) {
+                    assertEquals(i, order.get(i).intValue());
+                }
+            }
+        }).sync();
+    }
+
+    @Test
+    public void testLazyTaskDoesNotWakeUpIdleLoop() throws Exception {
+        // the loops of the shared group may still handle the channels of other tests
+        XnioEventLoopGroup idleGroup = new XnioEventLoopGroup(1);
+        try {
+            BatchingEventExecutor loop = (BatchingEventExecutor) idleGroup.next();
+            final CountDownLatch latch = new CountDownLatch(1);
+            loop.lazyExecute(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+            // nothing wakes up the loop, so the task stays queued
+            assertFalse(latch.await(200, TimeUnit.MILLISECONDS));
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // wake up only
+                }
+            });
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            idleGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testLazyTaskRunsAfterIo() throws Exception {
+        final CountDownLatch accepted = new CountDownLatch(1);
+        Channel server = new ServerBootstrap().group(group).channel(XnioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        accepted.countDown();
+                    }
+                }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+        XnioEventLoopGroup clientGroup = new XnioEventLoopGroup(1);
+        try {
+            Channel client = new Bootstrap().group(clientGroup).channel(XnioSocketChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter()).connect(server.localAddress()).sync().channel();
+            assertTrue(accepted.await(10, TimeUnit.SECONDS));
+
+            final CountDownLatch latch = new CountDownLatch(1);
+            ((BatchingEventExecutor) server.eventLoop()).lazyExecute(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+            // the read of the accepted channel picks up the task
+            client.writeAndFlush(Unpooled.copyLong(1)).sync();
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            client.close().sync();
+        } finally {
+            server.close().sync();
+            clientGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testLazyTaskRunsBeforeNextTask() throws Exception {
+        BatchingEventExecutor loop = (BatchingEventExecutor) group.next();
+        final List<String> order = new CopyOnWriteArrayList<String>();
+        loop.lazyExecute(new Runnable() {
+            @Override
+            public void run() {
+                order.add("lazy");
+            }
+        });
+        loop.submit(new Runnable() {
+            @Override
+            public void run() {
+                order.add("task");
+            }
+        }).sync();
+        assertEquals(Arrays.asList("lazy", "task"), order);
+    }
+
+    @Test
+    public void testExecuteAllRejectsNullTasks() {
+        final BatchingEventExecutor loop = (BatchingEventExecutor) group.next();
+        final AtomicInteger runs = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        assertThrows(NullPointerException.class, () -> loop.executeAll(Arrays.asList(task, null)));
+        assertThrows(NullPointerException.class, () -> loop.executeAll(null));
+        loop.executeAll(Collections.<Runnable>emptyList());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testBroadcastFanOut() throws Exception {
+        // every accepted channel is registered with the single loop of the group, one batch reaches all of them
+        final int clients = 32;
+        final int messages = 100;
+        final List<Channel> children = new CopyOnWriteArrayList<Channel>();
+        final CountDownLatch accepted = new CountDownLatch(clients);
+        Channel server = new ServerBootstrap().group(group).channel(XnioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        children.add(ch);
+                        accepted.countDown();
+                    }
+                }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+        XnioEventLoopGroup clientGroup = new XnioEventLoopGroup(2);
+        List<Channel> clientChannels = new ArrayList<Channel>();
+        try {
+            final AtomicLong received = new AtomicLong();
+            final CountDownLatch done = new CountDownLatch(clients);
+            for (int i = 0; i < clients; i++) {
+                clientChannels.add(new Bootstrap().group(clientGroup).channel(XnioSocketChannel.class)
+                        .handler(new ChannelInboundHandlerAdapter() {
+                            private int bytes;
+
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                bytes += ((ByteBuf) msg).readableBytes();
+                                received.addAndGet(((ByteBuf) msg).readableBytes());
+                                ReferenceCountUtil.release(msg);
+                                if (bytes == messages * 8) {
+                                    done.countDown();
+                                }
+                            }
+                        }).connect(server.localAddress()).sync().channel());
+            }
+            assertTrue(accepted.await(10, TimeUnit.SECONDS));
+
+            BatchingEventExecutor loop = (BatchingEventExecutor) server.eventLoop();
+            for (int m = 0; m < messages; m++) {
+                final long message = m;
+                List<Runnable> broadcast = new ArrayList<Runnable>(clients);
+                for (final Channel child: children) {
+                    assertEquals(loop, child.eventLoop());
+                    broadcast.add(new Runnable() {
+                        @Override
+                        public void run() {
+                            child.writeAndFlush(Unpooled.copyLong(message));
+                        }
+                    });
+                }
+                loop.executeAll(broadcast);
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals((long) clients * messages * 8, received.get());
+        } finally {
+            for (Channel channel: clientChannels) {
+                channel.close().sync();
+            }
+            server.close().sync();
+            clientGroup.shutdownGracefully();
+        }
+    }
+
+    private static final class Append implements Runnable {
+        private final List<Integer> order;
+        private final int value;
+        private final CountDownLatch latch;
+
+        Append(List<Integer> order, int value, CountDownLatch latch) {
+            this.order = order;
+            this.value = value;
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            order.add(value);
+            latch.countDown();
+        }
+    }
+}
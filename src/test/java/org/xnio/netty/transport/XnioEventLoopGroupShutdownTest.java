@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+
+public class XnioEventLoopGroupShutdownTest {
+    private static final int RESPONSE_SIZE = 16 * 1024 * 1024;
+
+    @Test
+    public void testInFlightWritesAreFlushed() throws Exception {
+        XnioEventLoopGroup serverGroup = new XnioEventLoopGroup(2);
+        XnioEventLoopGroup clientGroup = new XnioEventLoopGroup(1);
+        try {
+            final CountDownLatch responding = new CountDownLatch(1);
+            Channel server = newServer(serverGroup, responding);
+            final AtomicLong received = new AtomicLong();
+            final CountDownLatch closed = new CountDownLatch(1);
+            Channel client = newClient(clientGroup, server, received, closed);
+            client.writeAndFlush(Unpooled.wrappedBuffer(new byte[1])).sync();
+            assertTrue(responding.await(10, TimeUnit.SECONDS));
+
+            // the client did not read anything yet, so the response is still stuck in the server
+            Future<?> termination = serverGroup.shutdownGracefully(100, 10000, TimeUnit.MILLISECONDS);
+            assertTrue(serverGroup.isShuttingDown());
+            assertSame(termination, serverGroup.terminationFuture());
+            assertSame(termination, serverGroup.next().terminationFuture());
+            Thread.sleep(200);
+            assertFalse(termination.isDone());
+            assertFalse(server.isOpen());
+
+            client.config().setAutoRead(true);
+            assertTrue(closed.await(10, TimeUnit.SECONDS));
+            assertEquals(RESPONSE_SIZE, received.get());
+            assertTrue(termination.await(10, TimeUnit.SECONDS));
+            assertTrue(termination.isSuccess());
+            assertTrue(serverGroup.isTerminated());
+        } finally {
+            serverGroup.shutdownGracefully();
+            clientGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testTimeoutClosesStuckChannels() throws Exception {
+        XnioEventLoopGroup serverGroup = new XnioEventLoopGroup(2);
+        XnioEventLoopGroup clientGroup = new XnioEventLoopGroup(1);
+        try {
+            final CountDownLatch responding = new CountDownLatch(1);
+            Channel server = newServer(serverGroup, responding);
+            CountDownLatch closed = new CountDownLatch(1);
+            Channel client = newClient(clientGroup, server, new AtomicLong(), closed);
+            client.writeAndFlush(Unpooled.wrappedBuffer(new byte[1])).sync();
+            assertTrue(responding.await(10, TimeUnit.SECONDS));
+
+            // the client never reads, so the response can not be flushed before the timeout
+            long start = System.nanoTime();
+            Future<?> termination = serverGroup.shutdownGracefully(0, 200, TimeUnit.MILLISECONDS);
+            assertTrue(termination.await(10, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+            assertTrue(serverGroup.isTerminated());
+            client.config().setAutoRead(true);
+            assertTrue(closed.await(10, TimeUnit.SECONDS));
+        } finally {
+            serverGroup.shutdownGracefully();
+            clientGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testShutdownCompletesTerminationFuture() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        assertFalse(group.isShuttingDown());
+        group.shutdown();
+        assertTrue(group.isShuttingDown());
+        assertTrue(group.terminationFuture().await(10, TimeUnit.SECONDS));
+        assertTrue(group.isTerminated());
+    }
+
+    @Test
+    public void testTasksAreRejectedAfterShutdown() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        XnioEventLoop loop = (XnioEventLoop) group.next();
+        group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        final AtomicInteger ran = new AtomicInteger();
+        Runnable task = ran::incrementAndGet;
+        assertThrows(RejectedExecutionException.class, () -> loop.execute(task));
+        assertThrows(RejectedExecutionException.class, () -> loop.lazyExecute(task));
+        assertThrows(RejectedExecutionException.class, () -> loop.executeAll(Collections.singleton(task)));
+        assertEquals(0, ran.get());
+    }
+
+    @Test
+    public void testInvalidArguments() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        try {
+            assertThrows(IllegalArgumentException.class, () -> group.shutdownGracefully(-1, 1, TimeUnit.SECONDS));
+            assertThrows(IllegalArgumentException.class, () -> group.shutdownGracefully(2, 1, TimeUnit.SECONDS));
+            assertThrows(NullPointerException.class, () -> group.shutdownGracefully(0, 1, null));
+            assertFalse(group.isShuttingDown());
+        } finally {
+            group.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Channel newServer(XnioEventLoopGroup group, final CountDownLatch responding)
+            throws InterruptedException {
+        return new ServerBootstrap().group(group).channel(XnioServerSocketChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ReferenceCountUtil.release(msg);
+                        ctx.writeAndFlush(Unpooled.wrappedBuffer(new byte[RESPONSE_SIZE]));
+                        responding.countDown();
+                    }
+                }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+    }
+
+    private static Channel newClient(XnioEventLoopGroup group, Channel server, final AtomicLong received,
+                                     final CountDownLatch closed) throws InterruptedException {
+        return new Bootstrap().group(group).channel(XnioSocketChannel.class)
+                .option(ChannelOption.AUTO_READ, false)
+                .handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        received.addAndGet(((ByteBuf) msg).readableBytes());
+                        ReferenceCountUtil.release(msg);
+                    }
+
+                    @Override
+                    public void channelInactive(ChannelHandlerContext ctx) {
+                        closed.countDown();
+                    }
+                }).connect(server.localAddress()).sync().channel();
+    }
+}
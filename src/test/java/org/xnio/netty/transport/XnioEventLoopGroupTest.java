@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.xnio.OptionMap;
+import org.xnio.Options;
+import org.xnio.Xnio;
+import org.xnio.XnioWorker;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory;
+
+public class XnioEventLoopGroupTest {
+    private static final int THREADS = 4;
+
+    @Test
+    public void testEventLoopsAreCached() throws Exception {
+        XnioWorker worker = Xnio.getInstance().createWorker(OptionMap.create(Options.WORKER_IO_THREADS, THREADS));
+        XnioEventLoopGroup group = new XnioEventLoopGroup(worker);
+        try {
+            Set<EventExecutor> loops = Collections.newSetFromMap(new IdentityHashMap<EventExecutor, Boolean>());
+            for (EventExecutor loop: group) {
+                assertSame(group, loop.parent());
+                loops.add(loop);
+            }
+            assertEquals(THREADS, loops.size());
+            for (int i = 0; i < THREADS * 4; i++) {
+                assertTrue(loops.contains(group.next()));
+            }
+            for (int i = 0; i < THREADS; i++) {
+                assertSame(group.loop(worker.getIoThread(i)), group.loop(worker.getIoThread(i)));
+                assertTrue(loops.contains(group.loop(worker.getIoThread(i))));
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testEventLoopsOfOtherWorkerAreCached() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        XnioWorker other = Xnio.getInstance().createWorker(OptionMap.create(Options.WORKER_IO_THREADS, 1));
+        try {
+            XnioEventLoop loop = group.loop(other.getIoThread(0));
+            assertSame(loop, group.loop(other.getIoThread(0)));
+            assertSame(group, loop.parent());
+            assertNotSame(loop, group.loop(group.worker().getIoThread(0)));
+            for (EventExecutor executor: group) {
+                assertNotSame(loop, executor);
+            }
+        } finally {
+            group.shutdownGracefully().sync();
+            other.shutdown();
+        }
+    }
+
+    @Test
+    public void testLeastConnectionsChooser() throws Exception {
+        testBalancedChooser(XnioEventLoopChooserFactory.LEAST_CONNECTIONS, 0);
+    }
+
+    @Test
+    public void testLeastConnectionsChooserBalancesBursts() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(THREADS, XnioEventLoopChooserFactory.LEAST_CONNECTIONS);
+        List<Channel> channels = new ArrayList<Channel>();
+        try {
+            // none of the registrations completed while the loops are chosen
+            List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+            for (int i = 0; i < THREADS * 16; i++) {
+                Channel channel = new XnioSocketChannel();
+                futures.add(group.register(channel));
+                channels.add(channel);
+            }
+            for (ChannelFuture future: futures) {
+                future.sync();
+            }
+            assertSkew(group, 16, 0);
+        } finally {
+            for (Channel channel: channels) {
+                channel.close().sync();
+            }
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testPowerOfTwoChoicesChooser() throws Exception {
+        // picking the better of two random loops keeps the loops close to each other, but not exactly equal
+        testBalancedChooser(XnioEventLoopChooserFactory.POWER_OF_TWO_CHOICES, 4);
+    }
+
+    private static void testBalancedChooser(XnioEventLoopChooserFactory chooserFactory, int maxSkew)
+            throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(THREADS, chooserFactory);
+        List<Channel> channels = new ArrayList<Channel>();
+        try {
+            for (int i = 0; i < THREADS * 16; i++) {
+                Channel channel = new XnioSocketChannel();
+                channel.pipeline().addLast(new ChannelHandlerAdapter() { });
+                group.register(channel).sync();
+                channels.add(channel);
+            }
+            assertSkew(group, 16, maxSkew);
+
+            // close all channels of one loop, the next channels must go there
+            EventLoop emptied = channels.get(0).eventLoop();
+            for (Channel channel: channels) {
+                if (channel.eventLoop() == emptied) {
+                    channel.close().sync();
+                }
+            }
+            // channels are deregistered by a task which runs after the close future was notified
+            for (Channel channel: channels) {
+                while (channel.isRegistered() && channel.eventLoop() == emptied) {
+                    Thread.sleep(10);
+                }
+            }
+            assertEquals(0, ((XnioEventLoop) emptied).registeredChannels());
+            if (maxSkew == 0) {
+                for (int i = 0; i < 16; i++) {
+                    Channel channel = new XnioSocketChannel();
+                    group.register(channel).sync();
+                    assertSame(emptied, channel.eventLoop());
+                    channels.add(channel);
+                }
+                assertSkew(group, 16, 0);
+            }
+        } finally {
+            for (Channel channel: channels) {
+                channel.close().sync();
+            }
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testLeastLoadedChooserReducesSkew() throws Exception {
+        double roundRobin = skewedLoadVariance(XnioEventLoopChooserFactory.ROUND_ROBIN);
+        double leastLoaded = skewedLoadVariance(XnioEventLoopChooserFactory.LEAST_LOADED);
+        assertTrue(leastLoaded < roundRobin / 2,
+                "variance of least loaded " + leastLoaded + " is not below round robin " + roundRobin);
+    }
+
+    /**
+     * Places busy channels on two of the loops, then registers idle channels via the given chooser and returns the
+     * variance of the loads of the loops.
+     */
+    private static double skewedLoadVariance(EventExecutorChooserFactory chooserFactory) throws Exception {
+        XnioWorker worker = Xnio.getInstance().createWorker(OptionMap.create(Options.WORKER_IO_THREADS, THREADS));
+        XnioEventLoopGroup group = new XnioEventLoopGroup(worker, chooserFactory);
+        List<Channel> channels = new ArrayList<Channel>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                final XnioEventLoop busy = group.loop(worker.getIoThread(i));
+                for (int j = 0; j < 4; j++) {
+                    Channel channel = new XnioSocketChannel();
+                    busy.register(channel).sync();
+                    channels.add(channel);
+                }
+                busy.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        busy.bytesTransferred(64 * 1024 * 1024);
+                    }
+                }).sync();
+            }
+            for (int i = 0; i < THREADS * 8; i++) {
+                Channel channel = new XnioSocketChannel();
+                group.register(channel).sync();
+                channels.add(channel);
+            }
+
+            XnioEventLoop[] loops = new XnioEventLoop[THREADS];
+            for (int i = 0; i < THREADS; i++) {
+                loops[i] = group.loop(worker.getIoThread(i));
+            }
+            double[] loads = XnioEventLoopChooserFactory.loads(loops);
+            double mean = 0;
+            for (double load: loads) {
+                mean += load / loads.length;
+            }
+            double variance = 0;
+            for (double load: loads) {
+                variance += (load - mean) * (load - mean) / loads.length;
+            }
+            return variance;
+        } finally {
+            for (Channel channel: channels) {
+                channel.close().sync();
+            }
+            group.shutdownGracefully();
+        }
+    }
+
+    private static void assertSkew(XnioEventLoopGroup group, int expected, int maxSkew) {
+        for (EventExecutor loop: group) {
+            int channels = ((XnioEventLoop) loop).registeredChannels();
+            assertTrue(Math.abs(channels - expected) <= maxSkew,
+                    "expected " + expected + " channels but " + loop + " has " + channels);
+        }
+    }
+}
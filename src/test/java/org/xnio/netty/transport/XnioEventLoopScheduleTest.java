@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+
+public class XnioEventLoopScheduleTest {
+    private static XnioEventLoopGroup group;
+
+    @BeforeAll
+    public static void createGroup() throws Exception {
+        group = new XnioEventLoopGroup(1);
+    }
+
+    @AfterAll
+    public static void shutdownGroup() throws Exception {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    public void testCatchUpPolicies() {
+        // ran for the deadline 100 with a period of 10 but only finished at 135, so 110, 120 and 130 were missed
+        assertEquals(110, FixedRateCatchUp.BURST.nextDeadline(100, 10, 135));
+        assertEquals(140, FixedRateCatchUp.SKIP.nextDeadline(100, 10, 135));
+        assertEquals(130, FixedRateCatchUp.COALESCE.nextDeadline(100, 10, 135));
+
+        // nothing was missed
+        assertEquals(110, FixedRateCatchUp.BURST.nextDeadline(100, 10, 105));
+        assertEquals(110, FixedRateCatchUp.SKIP.nextDeadline(100, 10, 105));
+        assertEquals(110, FixedRateCatchUp.COALESCE.nextDeadline(100, 10, 105));
+
+        // works across a wrap around of System.nanoTime()
+        long deadline = Long.MAX_VALUE - 5;
+        assertEquals(deadline + 40, FixedRateCatchUp.SKIP.nextDeadline(deadline, 10, deadline + 35));
+        assertEquals(deadline + 30, FixedRateCatchUp.COALESCE.nextDeadline(deadline, 10, deadline + 35));
+    }
+
+    @Test
+    public void testCatchUpPolicyNames() {
+        assertEquals(FixedRateCatchUp.SKIP, FixedRateCatchUp.forName("skip"));
+        assertEquals(FixedRateCatchUp.COALESCE, FixedRateCatchUp.forName(" Coalesce "));
+        // an unknown policy falls back to the default instead of failing
+        assertEquals(FixedRateCatchUp.BURST, FixedRateCatchUp.forName("catch-up"));
+    }
+
+    @Test
+    public void testCatchUpPolicyOfGroup() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        try {
+            assertEquals(FixedRateCatchUp.DEFAULT, group.getFixedRateCatchUp());
+            assertThrows(NullPointerException.class, () -> group.setFixedRateCatchUp(null));
+            group.setFixedRateCatchUp(FixedRateCatchUp.SKIP);
+            assertEquals(FixedRateCatchUp.SKIP, group.getFixedRateCatchUp());
+
+            final long[] times = new long[3];
+            final CountDownLatch latch = new CountDownLatch(2);
+            ScheduledFuture<?> future = group.next().scheduleAtFixedRate(new Runnable() {
+                private int run;
+
+                @Override
+                public void run() {
+                    if (run == 0) {
+                        // miss the next two deadlines
+                        sleep(250);
+                        times[run++] = System.nanoTime();
+                    } else if (run < times.length) {
+                        times[run++] = System.nanoTime();
+                    }
+                    latch.countDown();
+                }
+            }, 0, 100, TimeUnit.MILLISECONDS);
+            try {
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+            } finally {
+                future.cancel(false);
+            }
+            // the missed runs are skipped, a burst would run right away
+            long gap = times[1] - times[0];
+            assertTrue(gap >= TimeUnit.MILLISECONDS.toNanos(20), "second run after " + gap + "ns");
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testFixedRateDoesNotDrift() throws Exception {
+        EventLoop loop = group.next();
+        final int runs = 40;
+        final long period = TimeUnit.MILLISECONDS.toNanos(20);
+        final long[] times = new long[runs];
+        final CountDownLatch latch = new CountDownLatch(runs);
+        ScheduledFuture<?> future = loop.scheduleAtFixedRate(new Runnable() {
+            private int run;
+
+            @Override
+            public void run() {
+                if (run < runs) {
+                    times[run++] = System.nanoTime();
+                    latch.countDown();
+                }
+            }
+        }, 20, 20, TimeUnit.MILLISECONDS);
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            future.cancel(false);
+        }
+        // every run fires within one timer tick plus some scheduling noise of its deadline, without adding up
+        long maxJitter = XnioTimerWheel.TICK_NANOS + TimeUnit.MILLISECONDS.toNanos(30);
+        for (int i = 1; i < runs; i++) {
+            long jitter = times[i] - (times[0] + i * period);
+            assertTrue(Math.abs(jitter) <= maxJitter, "run " + i + " is off by " + jitter + "ns");
+        }
+    }
+
+    @Test
+    public void testFixedDelayUsesInitialDelay() throws Exception {
+        EventLoop loop = group.next();
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        ScheduledFuture<?> future = loop.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 0, 1, TimeUnit.HOURS);
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            future.cancel(false);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoop;
+import io.netty.handler.codec.FixedLengthFrameDecoder;
+
+public class XnioEventLoopSpinTest {
+    private static final int ROUND_TRIPS = 5000;
+
+    @Test
+    public void testSpinningLoopRunsAllTasks() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        try {
+            group.setSpinBeforePark(50, TimeUnit.MICROSECONDS);
+            assertEquals(50, group.getSpinBeforePark(TimeUnit.MICROSECONDS));
+            EventLoop loop = group.next();
+            int count = 10000;
+            final AtomicInteger runs = new AtomicInteger();
+            final CountDownLatch latch = new CountDownLatch(count + 2);
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    runs.incrementAndGet();
+                    latch.countDown();
+                }
+            };
+            for (int i = 0; i < count; i++) {
+                loop.execute(task);
+            }
+            ((BatchingEventExecutor) loop).lazyExecute(task);
+            // the lazy task is picked up by the spin or by the next task at the latest
+            loop.execute(task);
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(count + 2, runs.get());
+
+            group.setSpinBeforePark(0, TimeUnit.NANOSECONDS);
+            assertEquals(0, group.getSpinBeforePark(TimeUnit.NANOSECONDS));
+            loop.submit(task).sync();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testInvalidSpinTime() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        try {
+            assertThrows(IllegalArgumentException.class, () -> group.setSpinBeforePark(-1, TimeUnit.SECONDS));
+            assertThrows(NullPointerException.class, () -> group.setSpinBeforePark(1, null));
+            assertThrows(IllegalArgumentException.class, () -> group.setSpinBeforePark(101, TimeUnit.MICROSECONDS));
+            assertThrows(IllegalArgumentException.class, () -> group.setSpinBeforePark(1, TimeUnit.SECONDS));
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testHandOffLatency() throws Exception {
+        long[] parking = handOffLatencies(0);
+        long[] spinning = handOffLatencies(XnioEventLoop.MAX_SPIN_BEFORE_PARK_NANOS);
+        String histogram = "parking " + percentiles(parking) + ", spinning " + percentiles(spinning);
+        // the IoThread does not spin on a single CPU, as the submitting thread could not run meanwhile
+        assumeTrue(Runtime.getRuntime().availableProcessors() > 1, histogram);
+        assertTrue(percentile(spinning, 0.5) <= percentile(parking, 0.5), histogram);
+    }
+
+    @Test
+    public void testSpinningDoesNotHoldOffIo() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup clientGroup = new XnioEventLoopGroup(1);
+        final AtomicBoolean stop = new AtomicBoolean();
+        try {
+            group.setSpinBeforePark(XnioEventLoop.MAX_SPIN_BEFORE_PARK_NANOS, TimeUnit.NANOSECONDS);
+            final EventLoop loop = group.next();
+            Channel server = new ServerBootstrap().group(group).channel(XnioServerSocketChannel.class)
+                    .childHandler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            ctx.writeAndFlush(msg);
+                        }
+                    }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            final BlockingQueue<Long> echoes = new LinkedBlockingQueue<Long>();
+            Channel client = new Bootstrap().group(clientGroup).channel(XnioSocketChannel.class)
+                    .handler(new FixedLengthFrameDecoder(8) {
+                        @Override
+                        protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+                            ByteBuf frame = (ByteBuf) super.decode(ctx, in);
+                            if (frame != null) {
+                                echoes.add(frame.readLong());
+                                frame.release();
+                            }
+                            return null;
+                        }
+                    }).connect(server.localAddress()).sync().channel();
+
+            // every task is submitted right after the previous one ran, so the IoThread always finds one while it
+            // spins
+            Thread submitter = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final AtomicInteger completed = new AtomicInteger();
+                    Runnable task = new Runnable() {
+                        @Override
+                        public void run() {
+                            completed.incrementAndGet();
+                        }
+                    };
+                    while (!stop.get()) {
+                        int expected = completed.get() + 1;
+                        loop.execute(task);
+                        while (completed.get() != expected && !stop.get()) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }
+            });
+            submitter.start();
+            try {
+                for (long i = 0; i < 20; i++) {
+                    client.writeAndFlush(Unpooled.copyLong(i));
+                    assertEquals(Long.valueOf(i), echoes.poll(10, TimeUnit.SECONDS));
+                }
+            } finally {
+                stop.set(true);
+                submitter.join();
+            }
+            client.close().sync();
+            server.close().sync();
+        } finally {
+            stop.set(true);
+            clientGroup.shutdownGracefully();
+            group.shutdownGracefully();
+        }
+    }
+
+    /**
+     * Measures the time from submitting a task to the {@link EventLoop} until the submitting thread sees it ran,
+     * for tasks which are submitted right after the previous one completed.
+     */
+    private static long[] handOffLatencies(long spinNanos) throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        try {
+            group.setSpinBeforePark(spinNanos, TimeUnit.NANOSECONDS);
+            EventLoop loop = group.next();
+            final AtomicInteger completed = new AtomicInteger();
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    completed.incrementAndGet();
+                }
+            };
+            long[] latencies = new long[ROUND_TRIPS];
+            // warm up
+            for (int i = -ROUND_TRIPS / 10; i < ROUND_TRIPS; i++) {
+                int expected = completed.get() + 1;
+                long start = System.nanoTime();
+                loop.execute(task);
+                while (completed.get() != expected) {
+                    Thread.yield();
+                }
+                if (i >= 0) {
+                    latencies[i] = System.nanoTime() - start;
+                }
+            }
+            Arrays.sort(latencies);
+            return latencies;
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    private static String percentiles(long[] sorted) {
+        return "p50=" + percentile(sorted, 0.5) + "ns p99=" + percentile(sorted, 0.99) + "ns p999="
+                + percentile(sorted, 0.999) + "ns";
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+    }
+}
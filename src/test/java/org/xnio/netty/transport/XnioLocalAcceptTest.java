@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.xnio.XnioIoThread;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+
+public class XnioLocalAcceptTest {
+
+    @Test
+    public void testChildrenAreInitializedOnTheirIoThread() throws Exception {
+        testLocalAccept(true, false);
+    }
+
+    @Test
+    public void testChildrenAreInitializedOnServerLoopByDefault() throws Exception {
+        testLocalAccept(false, false);
+    }
+
+    @Test
+    public void testChildrenAreInitializedOnServerLoopIfPipelineHasOtherHandlers() throws Exception {
+        testLocalAccept(true, true);
+    }
+
+    private static void testLocalAccept(boolean localAccept, boolean serverHandler) throws Exception {
+        final int clients = 32;
+        XnioEventLoopGroup boss = new XnioEventLoopGroup(1);
+        XnioEventLoopGroup workers = new XnioEventLoopGroup(4);
+        final AtomicInteger serverReads = new AtomicInteger();
+        final List<Thread> initThreads = new CopyOnWriteArrayList<Thread>();
+        final List<Channel> children = new CopyOnWriteArrayList<Channel>();
+        final CountDownLatch initialized = new CountDownLatch(clients);
+        final CountDownLatch serverLoopBlocked = new CountDownLatch(1);
+        try {
+            ServerBootstrap bootstrap = new ServerBootstrap().group(boss, workers)
+                    .option(XnioChannelOption.CHILD_GROUP, workers)
+                    .channel(XnioServerSocketChannel.class)
+                    .option(XnioChannelOption.LOCAL_ACCEPT, localAccept)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            initThreads.add(Thread.currentThread());
+                            children.add(ch);
+                            initialized.countDown();
+                        }
+                    });
+            if (serverHandler) {
+                bootstrap.handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        assertTrue(ctx.executor().inEventLoop());
+                        serverReads.incrementAndGet();
+                        ctx.fireChannelRead(msg);
+                    }
+                });
+            }
+            Channel server = bootstrap.bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            assertEquals(localAccept, ((XnioServerSocketChannel) server).config().isLocalAccept());
+            InetSocketAddress address = (InetSocketAddress) server.localAddress();
+
+            // only the local accept mode does not need the EventLoop of the server channel
+            server.eventLoop().execute(() -> {
+                try {
+                    serverLoopBlocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            for (int i = 0; i < clients; i++) {
+                SocketChannel.open(address).close();
+            }
+            boolean local = localAccept && !serverHandler;
+            if (local) {
+                assertTrue(initialized.await(10, TimeUnit.SECONDS));
+            } else {
+                assertFalse(initialized.await(300, TimeUnit.MILLISECONDS));
+            }
+            serverLoopBlocked.countDown();
+            assertTrue(initialized.await(10, TimeUnit.SECONDS));
+
+            assertEquals(serverHandler ? clients : 0, serverReads.get());
+            for (int i = 0; i < clients; i++) {
+                Channel child = children.get(i);
+                assertSame(workers, child.eventLoop().parent());
+                XnioIoThread thread = ((XnioEventLoop) child.eventLoop()).ioThread();
+                assertSame(thread, initThreads.get(i));
+            }
+            server.close().sync();
+        } finally {
+            serverLoopBlocked.countDown();
+            workers.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+            boss.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+}
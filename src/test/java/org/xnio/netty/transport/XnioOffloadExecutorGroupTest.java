@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.handler.codec.FixedLengthFrameDecoder;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.EventExecutor;
+
+public class XnioOffloadExecutorGroupTest {
+
+    @Test
+    public void testBlockingHandlerDoesNotStallIoThread() throws Exception {
+        final int messages = 10;
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        final XnioOffloadExecutorGroup offload = new XnioOffloadExecutorGroup();
+        final List<Channel> children = new CopyOnWriteArrayList<Channel>();
+        final AtomicBoolean wrongThread = new AtomicBoolean();
+        final CountDownLatch blocking = new CountDownLatch(1);
+        Channel client = null;
+        try {
+            Channel server = new ServerBootstrap().group(group).channel(XnioServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            children.add(ch);
+                            ch.pipeline().addLast(new FixedLengthFrameDecoder(4));
+                            ch.pipeline().addLast(offload, new ChannelInboundHandlerAdapter() {
+                                @Override
+                                public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+                                    if (ctx.channel().eventLoop().inEventLoop() || !ctx.executor().inEventLoop()) {
+                                        wrongThread.set(true);
+                                    }
+                                    blocking.countDown();
+                                    // a blocking call, like a query
+                                    Thread.sleep(50);
+                                    ctx.writeAndFlush(msg);
+                                }
+                            });
+                        }
+                    }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+
+            final List<Integer> echoed = new CopyOnWriteArrayList<Integer>();
+            final CountDownLatch done = new CountDownLatch(messages);
+            client = new Bootstrap().group(group).channel(XnioSocketChannel.class)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            ch.pipeline().addLast(new FixedLengthFrameDecoder(4));
+                            ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                                @Override
+                                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                    echoed.add(((ByteBuf) msg).readInt());
+                                    ReferenceCountUtil.release(msg);
+                                    done.countDown();
+                                }
+                            });
+                        }
+                    }).connect(server.localAddress()).sync().channel();
+            for (int i = 0; i < messages; i++) {
+                client.writeAndFlush(Unpooled.copyInt(i));
+            }
+            assertTrue(blocking.await(10, TimeUnit.SECONDS));
+            // the IoThread which serves both ends is not blocked by the handler
+            long start = System.nanoTime();
+            children.get(0).eventLoop().submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }).sync();
+            assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(messages * 50 / 2));
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < messages; i++) {
+                assertEquals(i, echoed.get(i).intValue());
+            }
+            assertFalse(wrongThread.get());
+            server.close().sync();
+        } finally {
+            if (client != null) {
+                client.close().sync();
+            }
+            // the last events of the channels still pass the offloaded handler
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+            offload.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testExecutorsRunTasksInOrder() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        XnioOffloadExecutorGroup offload = new XnioOffloadExecutorGroup(threads);
+        try {
+            EventExecutor executor = offload.next();
+            assertNotSame(executor, offload.next());
+            int count = 10000;
+            final List<Integer> order = new ArrayList<Integer>();
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicBoolean overlapped = new AtomicBoolean();
+            final CountDownLatch latch = new CountDownLatch(count);
+            for (int i = 0; i < count; i++) {
+                final int value = i;
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (running.incrementAndGet() != 1) {
+                            overlapped.set(true);
+                        }
+                        order.add(value);
+                        running.decrementAndGet();
+                        latch.countDown();
+                    }
+                });
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertFalse(overlapped.get());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, order.get(i).intValue());
+            }
+        } finally {
+            offload.shutdownGracefully();
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectedTaskIsNotQueued() throws Exception {
+        final ExecutorService threads = Executors.newSingleThreadExecutor();
+        final AtomicBoolean reject = new AtomicBoolean(true);
+        XnioOffloadExecutorGroup offload = new XnioOffloadExecutorGroup(command -> {
+            if (reject.get()) {
+                throw new RejectedExecutionException();
+            }
+            threads.execute(command);
+        });
+        try {
+            EventExecutor executor = offload.next();
+            final List<String> ran = new CopyOnWriteArrayList<String>();
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> ran.add("rejected")));
+            reject.set(false);
+            executor.submit(() -> ran.add("accepted")).sync();
+            assertEquals(Collections.singletonList("accepted"), ran);
+        } finally {
+            offload.shutdownGracefully();
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        XnioOffloadExecutorGroup offload = new XnioOffloadExecutorGroup();
+        final EventExecutor executor = offload.next();
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).sync();
+        assertFalse(offload.isShuttingDown());
+        offload.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        assertTrue(executor.isShuttingDown());
+        assertTrue(offload.terminationFuture().await(10, TimeUnit.SECONDS));
+        assertTrue(offload.isTerminated());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }));
+    }
+}
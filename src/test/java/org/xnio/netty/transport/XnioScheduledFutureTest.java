@@ -0,0 +1,255 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
+
+public class XnioScheduledFutureTest {
+    private static XnioEventLoopGroup group;
+
+    @BeforeAll
+    public static void createGroup() throws Exception {
+        group = new XnioEventLoopGroup(1);
+    }
+
+    @AfterAll
+    public static void shutdownGroup() throws Exception {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    public void testCancelBeforeRun() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = group.next().schedule(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(future.isCancellable());
+        assertTrue(future.cancel(false));
+        assertFalse(future.cancel(false));
+        assertTrue(future.isCancelled());
+        assertTrue(future.isDone());
+        assertFalse(future.isSuccess());
+        assertInstanceOf(CancellationException.class, future.cause());
+        assertThrows(CancellationException.class, future::get);
+        assertFalse(((XnioScheduledFuture<?>) future).hasPromise());
+
+        Thread.sleep(150);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testCancelAfterRun() throws Exception {
+        ScheduledFuture<String> future = group.next().schedule(new Callable<String>() {
+            @Override
+            public String call() {
+                return "done";
+            }
+        }, 0, TimeUnit.MILLISECONDS);
+        assertEquals("done", future.get(10, TimeUnit.SECONDS));
+        assertFalse(future.cancel(false));
+        assertFalse(future.isCancelled());
+        assertTrue(future.isSuccess());
+        assertEquals("done", future.getNow());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final IllegalStateException cause = new IllegalStateException();
+        ScheduledFuture<Object> future = group.next().schedule(new Callable<Object>() {
+            @Override
+            public Object call() {
+                throw cause;
+            }
+        }, 0, TimeUnit.MILLISECONDS);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+        assertSame(cause, e.getCause());
+        assertSame(cause, future.cause());
+        assertNull(future.getNow());
+    }
+
+    @Test
+    public void testListenersSeeTheScheduledFuture() throws Exception {
+        final List<Future<?>> notified = new ArrayList<Future<?>>();
+        final CountDownLatch latch = new CountDownLatch(2);
+        FutureListener<Object> listener = new FutureListener<Object>() {
+            @Override
+            public void operationComplete(Future<Object> future) {
+                synchronized (notified) {
+                    notified.add(future);
+                }
+                latch.countDown();
+            }
+        };
+        ScheduledFuture<?> future = group.next().schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        future.addListener(listener);
+        assertTrue(((XnioScheduledFuture<?>) future).hasPromise());
+        future.sync();
+        // added after the task completed
+        future.addListener(listener);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        synchronized (notified) {
+            assertEquals(2, notified.size());
+            assertSame(future, notified.get(0));
+            assertSame(future, notified.get(1));
+        }
+    }
+
+    @Test
+    public void testRemovedListenerIsNotNotified() throws Exception {
+        final AtomicInteger notified = new AtomicInteger();
+        FutureListener<Object> listener = new FutureListener<Object>() {
+            @Override
+            public void operationComplete(Future<Object> future) {
+                notified.incrementAndGet();
+            }
+        };
+        ScheduledFuture<?> future = group.next().schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+        future.addListener(listener);
+        future.removeListener(listener);
+        future.sync();
+        Thread.sleep(50);
+        assertEquals(0, notified.get());
+    }
+
+    @Test
+    public void testCancelPeriodicTask() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(3);
+        ScheduledFuture<?> future = group.next().scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                latch.countDown();
+            }
+        }, 0, 10, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(false));
+        int ran = runs.get();
+        Thread.sleep(100);
+        // at most one run which was already in progress
+        assertTrue(runs.get() <= ran + 1);
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    public void testCancelFromTheTaskItself() throws Exception {
+        final AtomicReference<ScheduledFuture<?>> self = new AtomicReference<ScheduledFuture<?>>();
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch scheduled = new CountDownLatch(1);
+        ScheduledFuture<?> future = group.next().scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    scheduled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                runs.incrementAndGet();
+                self.get().cancel(false);
+            }
+        }, 0, 1, TimeUnit.MILLISECONDS);
+        self.set(future);
+        scheduled.countDown();
+        assertThrows(CancellationException.class, () -> future.get(10, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testCancelHeavy() throws Exception {
+        // most timeouts are cancelled before they fire, none of them may run or create a promise
+        final AtomicInteger runs = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        XnioEventLoop loop = (XnioEventLoop) group.next();
+        int timeouts = 100000;
+        List<ScheduledFuture<?>> futures = new ArrayList<ScheduledFuture<?>>(timeouts);
+        for (int i = 0; i < timeouts; i++) {
+            futures.add(loop.schedule(task, 200 + i % 100, TimeUnit.MILLISECONDS));
+        }
+        for (ScheduledFuture<?> future: futures) {
+            assertTrue(future.cancel(false));
+            assertFalse(((XnioScheduledFuture<?>) future).hasPromise());
+        }
+        // a timeout scheduled after all the cancelled ones fires while the wheel is drained
+        ScheduledFuture<?> last = loop.schedule(task, 400, TimeUnit.MILLISECONDS);
+        last.sync();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testCompareToUsesDeadlines() {
+        XnioEventLoop loop = (XnioEventLoop) group.next();
+        ScheduledFuture<?> first = loop.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 1, TimeUnit.HOURS);
+        ScheduledFuture<?> second = loop.schedule(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, 2, TimeUnit.HOURS);
+        try {
+            assertTrue(first.compareTo(second) < 0);
+            assertTrue(second.compareTo(first) > 0);
+            assertEquals(0, first.compareTo(first));
+        } finally {
+            first.cancel(false);
+            second.cancel(false);
+        }
+    }
+}
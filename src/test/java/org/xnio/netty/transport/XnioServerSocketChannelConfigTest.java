@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+
+public class XnioServerSocketChannelConfigTest {
+
+    @Test
+    public void testSocketOptionsAreApplied() throws Exception {
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        try {
+            Channel server = new ServerBootstrap().group(group).channel(XnioServerSocketChannel.class)
+                    .option(ChannelOption.SO_BACKLOG, 1024)
+                    .option(ChannelOption.SO_REUSEADDR, true)
+                    .option(ChannelOption.SO_RCVBUF, 64 * 1024)
+                    .option(XnioChannelOption.LOCAL_ACCEPT, true)
+                    .childHandler(new ChannelInboundHandlerAdapter())
+                    .bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            XnioServerSocketChannelConfig config = ((XnioServerSocketChannel) server).config();
+            assertEquals(1024, config.getOption(ChannelOption.SO_BACKLOG));
+            assertTrue(config.getOption(ChannelOption.SO_REUSEADDR));
+            assertTrue(config.getOption(ChannelOption.SO_RCVBUF) > 0);
+            assertTrue(config.getOption(XnioChannelOption.LOCAL_ACCEPT));
+            Map<ChannelOption<?>, Object> options = config.getOptions();
+            assertEquals(1024, options.get(ChannelOption.SO_BACKLOG));
+            assertEquals(-1, options.get(XnioChannelOption.BALANCING_TOKENS));
+            server.close().sync();
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testOptionsOfUnboundChannel() {
+        XnioServerSocketChannelConfig config = new XnioServerSocketChannel().config();
+        Map<ChannelOption<?>, Object> options = config.getOptions();
+        // the defaults XNIO binds with
+        assertEquals(50, options.get(ChannelOption.SO_BACKLOG));
+        assertEquals(true, options.get(ChannelOption.SO_REUSEADDR));
+        assertNull(options.get(ChannelOption.SO_RCVBUF));
+        assertEquals(16, options.get(XnioChannelOption.BALANCING_CONNECTIONS));
+
+        assertEquals(50, config.getOption(ChannelOption.SO_BACKLOG));
+        config.setOption(ChannelOption.SO_BACKLOG, 1024);
+        assertEquals(1024, config.getOption(ChannelOption.SO_BACKLOG));
+        assertThrows(IllegalArgumentException.class, () -> config.setBacklog(-1));
+    }
+
+    @Test
+    public void testConnectionWaterMarks() {
+        XnioServerSocketChannelConfig config = new XnioServerSocketChannel().config();
+        assertEquals(Integer.MAX_VALUE, config.getConnectionHighWater());
+        assertEquals(Integer.MAX_VALUE, config.getConnectionLowWater());
+        assertNull(config.getConnectionRejectHandler());
+
+        // the low water mark follows the high water mark until it is set
+        config.setOption(XnioChannelOption.CONNECTION_HIGH_WATER, 10);
+        assertEquals(10, config.getOption(XnioChannelOption.CONNECTION_LOW_WATER));
+        config.setOption(XnioChannelOption.CONNECTION_LOW_WATER, 4);
+        assertEquals(10, config.getOption(XnioChannelOption.CONNECTION_HIGH_WATER));
+        assertEquals(4, config.getOption(XnioChannelOption.CONNECTION_LOW_WATER));
+
+        assertThrows(IllegalArgumentException.class, () -> config.setConnectionHighWater(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setConnectionLowWater(-1));
+
+        XnioConnectionRejectHandler rejectHandler = connection -> { };
+        config.setOption(XnioChannelOption.CONNECTION_REJECT_HANDLER, rejectHandler);
+        assertSame(rejectHandler, config.getOption(XnioChannelOption.CONNECTION_REJECT_HANDLER));
+    }
+}
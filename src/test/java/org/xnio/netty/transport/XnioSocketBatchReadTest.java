@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.FixedRecvByteBufAllocator;
+
+/**
+ * Writes several buffers worth of data in one burst, which is in the socket before the child channel starts reading,
+ * and checks how the first read event delivers it.
+ */
+public class XnioSocketBatchReadTest {
+    private static final int BUFFER_SIZE = 1024;
+    private static final int BUFFERS = 8;
+
+    @Test
+    public void testBurstIsReadAsOneMessage() throws Exception {
+        assertEquals(Arrays.asList(BUFFER_SIZE * BUFFERS), readBurst(1, true));
+    }
+
+    @Test
+    public void testBurstIsReadAsOneMessagePerBuffer() throws Exception {
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < BUFFERS; i++) {
+            expected.add(BUFFER_SIZE);
+        }
+        assertEquals(expected, readBurst(1, false));
+    }
+
+    @Test
+    public void testScatteredBurstIsReadAsOneMessagePerRead() throws Exception {
+        assertEquals(Arrays.asList(BUFFER_SIZE * BUFFERS / 2, BUFFER_SIZE * BUFFERS / 2),
+                readBurst(BUFFERS / 2, false));
+    }
+
+    @Test
+    public void testScatteredBurstIsReadAsOneMessage() throws Exception {
+        assertEquals(Arrays.asList(BUFFER_SIZE * BUFFERS),
+                readBurst(BUFFERS / 2, true));
+    }
+
+    /**
+     * Returns the sizes of the messages fired by the first read event.
+     */
+    private static List<Integer> readBurst(int scatteringReadBuffers, boolean batchReads) throws Exception {
+        final byte[] data = new byte[BUFFER_SIZE * BUFFERS];
+        ThreadLocalRandom.current().nextBytes(data);
+        final CountDownLatch written = new CountDownLatch(1);
+        final CountDownLatch readComplete = new CountDownLatch(1);
+        final List<Integer> sizes = new ArrayList<Integer>();
+        final ByteBuf received = Unpooled.buffer(data.length);
+        XnioEventLoopGroup group = new XnioEventLoopGroup(1);
+        try {
+            Channel server = new ServerBootstrap().group(group).channel(XnioServerSocketChannel.class)
+                    .childOption(ChannelOption.RCVBUF_ALLOCATOR,
+                            new FixedRecvByteBufAllocator(BUFFER_SIZE).maxMessagesPerRead(BUFFERS * 2))
+                    .childOption(XnioChannelOption.SCATTERING_READ_BUFFERS, scatteringReadBuffers)
+                    .childOption(XnioChannelOption.BATCH_READS, batchReads)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) throws Exception {
+                            // the child starts reading once it was initialized
+                            assertTrue(written.await(10, TimeUnit.SECONDS));
+                            ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                                @Override
+                                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                    ByteBuf buf = (ByteBuf) msg;
+                                    if (readComplete.getCount() > 0) {
+                                        sizes.add(buf.readableBytes());
+                                        received.writeBytes(buf);
+                                    }
+                                    buf.release();
+                                }
+
+                                @Override
+                                public void channelReadComplete(ChannelHandlerContext ctx) {
+                                    readComplete.countDown();
+                                }
+                            });
+                        }
+                    }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+            try (SocketChannel client = SocketChannel.open(server.localAddress())) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    client.write(buffer);
+                }
+                // give the data some time to arrive in the receive buffer of the accepted socket
+                Thread.sleep(100);
+                written.countDown();
+                assertTrue(readComplete.await(10, TimeUnit.SECONDS));
+            } finally {
+                written.countDown();
+                server.close().sync();
+            }
+            if (received.readableBytes() == data.length) {
+                assertArrayEquals(data, received.array());
+            }
+            return sizes;
+        } finally {
+            received.release();
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+        }
+    }
+}
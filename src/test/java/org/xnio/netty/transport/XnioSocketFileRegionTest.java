@@ -18,20 +18,40 @@ package org.xnio.netty.transport;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultFileRegion;
 import io.netty.testsuite.transport.TestsuitePermutation;
 import io.netty.testsuite.transport.socket.SocketFileRegionTest;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.internal.PlatformDependent;
 
-
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
 import java.util.List;
-import org.junit.jupiter.api.Disabled;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  *
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
-@Disabled("Test hangs")
 public class XnioSocketFileRegionTest extends SocketFileRegionTest {
+    private static final int LARGE_FILE_SIZE = 64 * 1024 * 1024;
+
     @Override
     protected List<ByteBufAllocator> newAllocators() {
         return XnioTestsuiteUtils.newAllocators(super.newAllocators());
@@ -41,4 +61,73 @@ public class XnioSocketFileRegionTest extends SocketFileRegionTest {
     protected List<TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>> newFactories() {
         return XnioTestsuiteUtils.newFactories();
     }
+
+    @Test
+    @Timeout(value = 120000, unit = TimeUnit.MILLISECONDS)
+    public void testLargeFileRegion(TestInfo testInfo) throws Throwable {
+        run(testInfo, new Runner<ServerBootstrap, Bootstrap>() {
+            @Override
+            public void run(ServerBootstrap serverBootstrap, Bootstrap bootstrap) throws Throwable {
+                testLargeFileRegion(serverBootstrap, bootstrap);
+            }
+        });
+    }
+
+    public void testLargeFileRegion(ServerBootstrap sb, Bootstrap cb) throws Throwable {
+        File file = PlatformDependent.createTempFile("netty-", ".tmp", null);
+        file.deleteOnExit();
+        CRC32 expected = new CRC32();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            byte[] chunk = new byte[64 * 1024];
+            for (int written = 0; written < LARGE_FILE_SIZE; written += chunk.length) {
+                PlatformDependent.threadLocalRandom().nextBytes(chunk);
+                expected.update(chunk);
+                out.write(chunk);
+            }
+        } finally {
+            out.close();
+        }
+
+        final CRC32 received = new CRC32();
+        final CountDownLatch latch = new CountDownLatch(1);
+        sb.childHandler(new ChannelInboundHandlerAdapter() {
+            private long count;
+
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                ByteBuf buf = (ByteBuf) msg;
+                try {
+                    count += buf.readableBytes();
+                    byte[] bytes = new byte[buf.readableBytes()];
+                    buf.readBytes(bytes);
+                    received.update(bytes);
+                } finally {
+                    ReferenceCountUtil.release(msg);
+                }
+                if (count == LARGE_FILE_SIZE) {
+                    latch.countDown();
+                }
+            }
+        });
+        cb.handler(new ChannelInboundHandlerAdapter());
+
+        Channel sc = sb.bind().sync().channel();
+        Channel cc = cb.connect(sc.localAddress()).sync().channel();
+        try {
+            DefaultFileRegion region = new DefaultFileRegion(
+                    new RandomAccessFile(file, "r").getChannel(), 0, LARGE_FILE_SIZE);
+            ChannelFuture future = cc.writeAndFlush(region.retain());
+            assertTrue(latch.await(60, TimeUnit.SECONDS));
+            future.sync();
+            assertEquals(LARGE_FILE_SIZE, region.transferred());
+            region.release();
+            assertEquals(expected.getValue(), received.getValue());
+            // the region went through ConduitStreamSinkChannel.transferFrom and not through the heap
+            assertTrue(FileRegionTransfer.isZeroCopy());
+        } finally {
+            cc.close().sync();
+            sc.close().sync();
+        }
+    }
 }
@@ -19,6 +19,7 @@ package org.xnio.netty.transport;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.testsuite.transport.TestsuitePermutation;
 import org.xnio.netty.buffer.XnioByteBufAllocator;
@@ -27,18 +28,26 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.xnio.ByteBufferPool;
 
+import static org.junit.jupiter.api.Assertions.assertNull;
+
 /**
  *
  * @author <a href="mailto:nmaurer@redhat.com">Norman Maurer</a>
  */
 final class XnioTestsuiteUtils {
-    private static final EventLoopGroup GROUP;
+    private static final XnioEventLoopGroup GROUP;
+    private static final EventLoopGroup BOSS_GROUP;
 
     static {
         try {
             GROUP = new XnioEventLoopGroup();
+            BOSS_GROUP = new XnioEventLoopGroup(1);
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
@@ -47,6 +56,7 @@ final class XnioTestsuiteUtils {
     static List<ByteBufAllocator> newAllocators(List<ByteBufAllocator> allocs) {
         List<ByteBufAllocator> allocators = new ArrayList<>(allocs);
         allocators.add(new XnioByteBufAllocator(ByteBufferPool.LARGE_DIRECT));
+        allocators.add(new XnioByteBufAllocator());
         return allocators;
     }
 
@@ -65,6 +75,102 @@ final class XnioTestsuiteUtils {
                 });
     }
 
+    static <T> List<TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>> newFactories(
+            final ChannelOption<T> option, final T value) {
+        return Collections.<TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>>singletonList(
+                new TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>() {
+                    @Override
+                    public ServerBootstrap newServerInstance() {
+                        return new ServerBootstrap().channel(XnioServerSocketChannel.class).group(GROUP)
+                                .childOption(option, value);
+                    }
+
+                    @Override
+                    public Bootstrap newClientInstance() {
+                        return new Bootstrap().channel(XnioSocketChannel.class).group(GROUP).option(option, value);
+                    }
+                });
+    }
+
+    /**
+     * Returns factories whose {@link ServerBootstrap}s accept with a boss group that uses another
+     * {@link org.xnio.XnioWorker} than the group the accepted channels are registered with.
+     */
+    static List<TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>> newBossWorkerFactories() {
+        return Collections.<TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>>singletonList(
+                new TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>() {
+                    @Override
+                    public ServerBootstrap newServerInstance() {
+                        return new ServerBootstrap().channel(XnioServerSocketChannel.class).group(BOSS_GROUP, GROUP)
+                                .option(XnioChannelOption.CHILD_GROUP, GROUP);
+                    }
+
+                    @Override
+                    public Bootstrap newClientInstance() {
+                        return new Bootstrap().channel(XnioSocketChannel.class).group(GROUP);
+                    }
+                });
+    }
+
+    /**
+     * Returns factories whose {@link ServerBootstrap}s use separate boss and worker groups and initialize the accepted
+     * channels on the {@link org.xnio.XnioIoThread}s which accepted them.
+     */
+    static List<TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>> newLocalAcceptFactories() {
+        return Collections.<TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>>singletonList(
+                new TestsuitePermutation.BootstrapComboFactory<ServerBootstrap, Bootstrap>() {
+                    @Override
+                    public ServerBootstrap newServerInstance() {
+                        return new ServerBootstrap().channel(XnioServerSocketChannel.class).group(BOSS_GROUP, GROUP)
+                                .option(XnioChannelOption.CHILD_GROUP, GROUP)
+                                .option(XnioChannelOption.LOCAL_ACCEPT, true);
+                    }
+
+                    @Override
+                    public Bootstrap newClientInstance() {
+                        return new Bootstrap().channel(XnioSocketChannel.class).group(GROUP);
+                    }
+                });
+    }
+
+    /**
+     * Opens the given number of connections from the given number of threads, which start at the same time. Every
+     * connection is opened by passing its id, from {@code 0} to {@code connections - 1}, to the given
+     * {@link Connector}. Returns once all threads finished and fails if any of them failed.
+     */
+    static void connect(int threads, final int connections, final Connector connector) throws Exception {
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> connectors = new ArrayList<Thread>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int id = next.getAndIncrement(); id < connections; id = next.getAndIncrement()) {
+                        connector.connect(id);
+                    }
+                } catch (Throwable cause) {
+                    error.compareAndSet(null, cause);
+                }
+            });
+            connectors.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread: connectors) {
+            thread.join(TimeUnit.SECONDS.toMillis(60));
+        }
+        assertNull(error.get());
+    }
+
+    /**
+     * Opens a single connection for {@link #connect(int, int, Connector)}.
+     */
+    interface Connector {
+        void connect(int id) throws Exception;
+    }
+
     private XnioTestsuiteUtils() {
         // utility
     }
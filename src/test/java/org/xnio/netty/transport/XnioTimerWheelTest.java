@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version 2.0
+ * (the "License"); you may not use this file except in compliance with the
+ * License.  You may obtain a copy of the License at:
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.xnio.netty.transport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.xnio.OptionMap;
+import org.xnio.Options;
+import org.xnio.Xnio;
+import org.xnio.XnioIoThread;
+import org.xnio.XnioWorker;
+
+public class XnioTimerWheelTest {
+    private static XnioWorker worker;
+
+    @BeforeAll
+    public static void createWorker() throws Exception {
+        worker = Xnio.getInstance().createWorker(OptionMap.create(Options.WORKER_IO_THREADS, 1));
+    }
+
+    @AfterAll
+    public static void shutdownWorker() throws Exception {
+        worker.shutdown();
+        worker.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testTimeoutsFireInOrder() throws Exception {
+        XnioTimerWheel wheel = new XnioTimerWheel(worker.getIoThread(0));
+        final List<Integer> fired = new ArrayList<Integer>();
+        final CountDownLatch latch = new CountDownLatch(3);
+        final long start = System.nanoTime();
+        final List<Long> elapsed = new ArrayList<Long>();
+        for (final int delay: new int[] { 50, 10, 30 }) {
+            wheel.add(new Runnable() {
+                @Override
+                public void run() {
+                    elapsed.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) - delay);
+                    fired.add(delay);
+                    latch.countDown();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(10, (int) fired.get(0));
+        assertEquals(30, (int) fired.get(1));
+        assertEquals(50, (int) fired.get(2));
+        for (long late: elapsed) {
+            assertTrue(late >= 0, "fired " + (-late) + "ms early");
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        XnioTimerWheel wheel = new XnioTimerWheel(worker.getIoThread(0));
+        final AtomicInteger fired = new AtomicInteger();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                fired.incrementAndGet();
+            }
+        };
+        XnioTimerWheel.Timeout cancelled = wheel.add(task, 20, TimeUnit.MILLISECONDS);
+        XnioTimerWheel.Timeout expired = wheel.add(task, 20, TimeUnit.MILLISECONDS);
+        assertTrue(cancelled.remove());
+        assertFalse(cancelled.remove());
+        Thread.sleep(200);
+        assertEquals(1, fired.get());
+        assertFalse(expired.remove());
+    }
+
+    @Test
+    public void testTimeoutsBeyondOneRotation() throws Exception {
+        XnioTimerWheel wheel = new XnioTimerWheel(worker.getIoThread(0), TimeUnit.MILLISECONDS.toNanos(1), 8);
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        wheel.add(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testTimeoutAddedWhileExpiringFiresOnNextTick() throws Exception {
+        final XnioTimerWheel wheel = new XnioTimerWheel(worker.getIoThread(0));
+        final CountDownLatch latch = new CountDownLatch(10);
+        wheel.add(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+                if (latch.getCount() > 0) {
+                    // would never return if the wheel ran it again in the same pass
+                    wheel.add(this, 0, TimeUnit.MILLISECONDS);
+                }
+            }
+        }, 0, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testEarlierTimeoutAddedOnThreadRearmsTick() throws Exception {
+        XnioIoThread thread = worker.getIoThread(0);
+        final XnioTimerWheel wheel = new XnioTimerWheel(thread);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+        FutureTask<Void> task = new FutureTask<Void>(new Runnable() {
+            @Override
+            public void run() {
+                // arms the tick for the later timeout first
+                wheel.add(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                }, 1000, TimeUnit.MILLISECONDS);
+                wheel.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        latch.countDown();
+                    }
+                }, 10, TimeUnit.MILLISECONDS);
+            }
+        }, null);
+        thread.execute(task);
+        task.get();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    @Test
+    public void testManyTimeoutsPerThread() throws Exception {
+        final XnioIoThread thread = worker.getIoThread(0);
+        final XnioTimerWheel wheel = new XnioTimerWheel(thread);
+        final int count = 100000;
+        final AtomicInteger fired = new AtomicInteger();
+        final AtomicInteger early = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(count / 2);
+        FutureTask<Void> task = new FutureTask<Void>(new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random(42);
+                for (int i = 0; i < count; i++) {
+                    final long delay = random.nextInt(200);
+                    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+                    XnioTimerWheel.Timeout timeout = wheel.add(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (System.nanoTime() < deadline) {
+                                early.incrementAndGet();
+                            }
+                            fired.incrementAndGet();
+                            latch.countDown();
+                        }
+                    }, delay, TimeUnit.MILLISECONDS);
+                    // most timeouts are cancelled before they fire
+                    if (i % 2 == 0) {
+                        assertTrue(timeout.remove());
+                    }
+                }
+            }
+        }, null);
+        thread.execute(task);
+        task.get();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(count / 2, fired.get());
+        assertEquals(0, early.get());
+    }
+}